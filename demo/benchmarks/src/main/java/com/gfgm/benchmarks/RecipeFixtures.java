@@ -0,0 +1,100 @@
+package com.gfgm.benchmarks;
+
+import com.gfgm.dto.IngredientRequest;
+import com.gfgm.model.Ingredient;
+import com.gfgm.model.Recipe;
+import com.gfgm.model.RecipeCategory;
+import com.gfgm.model.Role;
+import com.gfgm.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Deterministic, realistically sized recipes so runs stay comparable across commits
+final class RecipeFixtures {
+    static final String[] INGREDIENTS = {
+            "chicken breast", "brown rice", "broccoli", "olive oil", "garlic", "red onion", "greek yogurt",
+            "rolled oats", "banana", "peanut butter", "salmon fillet", "sweet potato", "spinach", "black beans",
+            "quinoa", "cottage cheese", "whey protein", "almond milk", "lean ground beef", "egg whites",
+            "avocado", "cherry tomatoes", "bell pepper", "lentils", "tofu", "soy sauce", "honey", "blueberries"
+    };
+    private static final String[] DISHES = {"bowl", "stir fry", "wrap", "salad", "bake", "curry", "smoothie", "oats"};
+    private static final String[] UNITS = {"g", "ml", "tbsp", "tsp", "cup", "piece"};
+
+    private RecipeFixtures() {
+    }
+
+    static User author() {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("bench");
+        user.setEmail("bench@example.com");
+        user.setPassword("secret");
+        user.setRole(Role.USER);
+        user.setCreatedAt(LocalDateTime.of(2024, 1, 1, 8, 0));
+        return user;
+    }
+
+    // ids are left null when the recipes are meant to be persisted
+    static List<Recipe> recipes(int count, int ingredientsPerRecipe, User author, boolean withIds, long seed) {
+        Random random = new Random(seed);
+        List<Recipe> recipes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Recipe recipe = new Recipe();
+            if (withIds) {
+                recipe.setId(i + 1L);
+            }
+            String main = INGREDIENTS[random.nextInt(INGREDIENTS.length)];
+            recipe.setTitle(capitalize(main) + " " + DISHES[random.nextInt(DISHES.length)] + " #" + i);
+            recipe.setDescription("A high protein " + main + " meal prep recipe that keeps for four days in the fridge.");
+            recipe.setInstructions("1. Prep the ingredients.\n2. Cook the " + main + ".\n3. Combine, season and portion.");
+            recipe.setImageUrl("/uploads/" + i + ".jpg");
+            recipe.setPrepTime(5 + random.nextInt(30));
+            recipe.setCookTime(random.nextInt(60));
+            recipe.setServings(1 + random.nextInt(6));
+            recipe.setCalories(200 + random.nextInt(700) + 0.5);
+            recipe.setProtein(5 + random.nextInt(60) + 0.25);
+            recipe.setCarbs(random.nextInt(90) + 0.5);
+            recipe.setFat(random.nextInt(40) + 0.5);
+            recipe.setFiber(random.nextInt(15) + 0.5);
+            recipe.setSugar(random.nextInt(30) + 0.5);
+            recipe.setCategory(RecipeCategory.values()[random.nextInt(RecipeCategory.values().length)]);
+            recipe.setGeneratedByAi(random.nextBoolean());
+            recipe.setCreatedAt(LocalDateTime.of(2024, 1, 1, 8, 0).plusMinutes(i));
+            recipe.setUpdatedAt(recipe.getCreatedAt());
+            recipe.setUser(author);
+            for (int j = 0; j < ingredientsPerRecipe; j++) {
+                Ingredient ingredient = new Ingredient();
+                if (withIds) {
+                    ingredient.setId((long) i * ingredientsPerRecipe + j + 1);
+                }
+                ingredient.setName(j == 0 ? main : INGREDIENTS[random.nextInt(INGREDIENTS.length)]);
+                ingredient.setAmount(10.0 + random.nextInt(300));
+                ingredient.setUnit(UNITS[random.nextInt(UNITS.length)]);
+                ingredient.setRecipe(recipe);
+                recipe.getIngredients().add(ingredient);
+            }
+            recipes.add(recipe);
+        }
+        return recipes;
+    }
+
+    static List<IngredientRequest> ingredientRequests(int count, long seed) {
+        Random random = new Random(seed);
+        List<IngredientRequest> requests = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            IngredientRequest request = new IngredientRequest();
+            request.setName(INGREDIENTS[random.nextInt(INGREDIENTS.length)]);
+            request.setAmount(10.0 + random.nextInt(300));
+            request.setUnit(UNITS[random.nextInt(UNITS.length)]);
+            requests.add(request);
+        }
+        return requests;
+    }
+
+    private static String capitalize(String value) {
+        return Character.toUpperCase(value.charAt(0)) + value.substring(1);
+    }
+}
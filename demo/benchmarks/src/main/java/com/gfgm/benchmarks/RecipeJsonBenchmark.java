@@ -0,0 +1,55 @@
+package com.gfgm.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.gfgm.dto.RecipeDTO;
+import com.gfgm.mapper.RecipeMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+// Serialization of a RecipeDTO page the way the MVC message converter does it
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RecipeJsonBenchmark {
+
+    @Param({"12", "50"})
+    private int pageSize;
+
+    private ObjectWriter writer;
+    private Page<RecipeDTO> page;
+
+    @Setup
+    public void setUp() {
+        // Same defaults as Spring Boot's auto-configured mapper (java.time support, ISO dates)
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writer();
+        RecipeMapper mapper = new RecipeMapper();
+        page = new PageImpl<>(
+                mapper.toDTOList(RecipeFixtures.recipes(pageSize, 8, RecipeFixtures.author(), true, 42)),
+                PageRequest.of(0, pageSize), 1000);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws Exception {
+        return writer.writeValueAsBytes(page);
+    }
+}
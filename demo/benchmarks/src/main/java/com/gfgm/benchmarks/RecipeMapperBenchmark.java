@@ -0,0 +1,65 @@
+package com.gfgm.benchmarks;
+
+import com.gfgm.dto.IngredientRequest;
+import com.gfgm.dto.RecipeDTO;
+import com.gfgm.mapper.RecipeMapper;
+import com.gfgm.model.Ingredient;
+import com.gfgm.model.Recipe;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Entity to DTO mapping of list pages, and the ingredient list building behind createRecipe/updateRecipe
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RecipeMapperBenchmark {
+
+    // 12 is the /recipes/ai default, 50 a large page
+    @Param({"12", "50"})
+    private int pageSize;
+
+    @Param({"8"})
+    private int ingredientsPerRecipe;
+
+    private final RecipeMapper mapper = new RecipeMapper();
+    private List<Recipe> page;
+    private Recipe recipe;
+    private List<IngredientRequest> ingredientRequests;
+
+    @Setup
+    public void setUp() {
+        page = RecipeFixtures.recipes(pageSize, ingredientsPerRecipe, RecipeFixtures.author(), true, 42);
+        recipe = page.get(0);
+        ingredientRequests = RecipeFixtures.ingredientRequests(ingredientsPerRecipe, 42);
+    }
+
+    @Benchmark
+    public RecipeDTO toDTO() {
+        return mapper.toDTO(recipe);
+    }
+
+    @Benchmark
+    public List<RecipeDTO> toDTOList() {
+        return mapper.toDTOList(page);
+    }
+
+    @Benchmark
+    public List<Ingredient> toIngredients() {
+        return mapper.toIngredients(recipe, ingredientRequests);
+    }
+}
@@ -0,0 +1,93 @@
+package com.gfgm.benchmarks;
+
+import com.gfgm.GfgmApplication;
+import com.gfgm.dto.RecipeCardDTO;
+import com.gfgm.dto.RecipeDTO;
+import com.gfgm.index.RecipeIndexer;
+import com.gfgm.model.Recipe;
+import com.gfgm.model.User;
+import com.gfgm.repository.RecipeRepository;
+import com.gfgm.repository.UserRepository;
+import com.gfgm.service.RecipeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// GET /recipes/search end to end below the controller: index lookup, page query and mapping, on H2 (see application-bench)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RecipeSearchBenchmark {
+    private static final int SEED_BATCH_SIZE = 500;
+
+    @Param({"5000"})
+    private int recipes;
+
+    @Param({"chicken rice", "salmon sweet potato bowl", "qui"})
+    private String query;
+
+    private ConfigurableApplicationContext context;
+    private RecipeService recipeService;
+    private final Pageable firstPage = PageRequest.of(0, 12);
+    private final Pageable deepPage = PageRequest.of(20, 12);
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(GfgmApplication.class)
+                .profiles("bench")
+                .web(WebApplicationType.NONE)
+                .run();
+        recipeService = context.getBean(RecipeService.class);
+
+        User author = RecipeFixtures.author();
+        author.setId(null);
+        author = context.getBean(UserRepository.class).save(author);
+        RecipeRepository recipeRepository = context.getBean(RecipeRepository.class);
+        List<Recipe> all = RecipeFixtures.recipes(recipes, 8, author, false, 42);
+        for (int from = 0; from < all.size(); from += SEED_BATCH_SIZE) {
+            recipeRepository.saveAll(all.subList(from, Math.min(from + SEED_BATCH_SIZE, all.size())));
+        }
+        context.getBean(RecipeIndexer.class).rebuildAll();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<RecipeDTO> searchFirstPage() {
+        return recipeService.searchRecipes(query, firstPage);
+    }
+
+    @Benchmark
+    public Page<RecipeDTO> searchDeepPage() {
+        return recipeService.searchRecipes(query, deepPage);
+    }
+
+    @Benchmark
+    public Page<RecipeCardDTO> searchCards() {
+        return recipeService.searchRecipeCards(query, firstPage);
+    }
+}
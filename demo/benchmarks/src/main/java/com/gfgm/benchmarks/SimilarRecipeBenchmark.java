@@ -0,0 +1,112 @@
+package com.gfgm.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gfgm.index.SimilarRecipeIndex;
+import com.gfgm.model.Ingredient;
+import com.gfgm.model.Recipe;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// The in-memory nearest-recipe lookup against the sidecar's /predict for the same pantry.
+// sidecarPredict needs gfgm-ai/app.py running (-p sidecarUrl=...); without it only that benchmark fails.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SimilarRecipeBenchmark {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final List<String> PANTRY = List.of("chicken breast", "brown rice", "garlic", "soy sauce", "broccoli");
+
+    @State(Scope.Benchmark)
+    public static class IndexState {
+        @Param({"5000", "50000"})
+        private int recipes;
+
+        // The model vocabulary gives realistic term spread; the small fixture list is used when it is missing
+        @Param({"../gfgm-ai/ingredients.json"})
+        private String vocabularyPath;
+
+        private SimilarRecipeIndex index;
+
+        @Setup
+        public void setUp() throws IOException {
+            Path path = Paths.get(vocabularyPath);
+            List<String> vocabulary = Files.isReadable(path)
+                    ? MAPPER.readValue(path.toFile(), new TypeReference<List<String>>() {})
+                    : Arrays.asList(RecipeFixtures.INGREDIENTS);
+            index = new SimilarRecipeIndex("", MAPPER);
+            Random random = new Random(42);
+            for (int i = 0; i < recipes; i++) {
+                Recipe recipe = new Recipe();
+                recipe.setId(i + 1L);
+                recipe.setTitle("Recipe #" + i);
+                int size = 5 + random.nextInt(10);
+                for (int j = 0; j < size; j++) {
+                    // Cubing skews picks toward the head of the list, so some ingredients are common and most rare
+                    double u = random.nextDouble();
+                    Ingredient ingredient = new Ingredient();
+                    ingredient.setName(vocabulary.get((int) (vocabulary.size() * u * u * u)));
+                    ingredient.setRecipe(recipe);
+                    recipe.getIngredients().add(ingredient);
+                }
+                index.index(recipe);
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class SidecarState {
+        @Param({"http://localhost:5000"})
+        private String sidecarUrl;
+
+        private HttpClient client;
+        private HttpRequest request;
+
+        @Setup
+        public void setUp() throws Exception {
+            client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).connectTimeout(Duration.ofSeconds(2)).build();
+            request = HttpRequest.newBuilder(URI.create(sidecarUrl + "/predict"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(MAPPER.writeValueAsBytes(
+                            Map.of("ingredients", PANTRY))))
+                    .build();
+            client.send(request, HttpResponse.BodyHandlers.discarding());
+        }
+    }
+
+    @Benchmark
+    public List<SimilarRecipeIndex.Match> nearestFive(IndexState state) {
+        return state.index.nearest(PANTRY, 5);
+    }
+
+    @Benchmark
+    public byte[] sidecarPredict(SidecarState state) throws Exception {
+        return state.client.send(state.request, HttpResponse.BodyHandlers.ofByteArray()).body();
+    }
+}
@@ -77,6 +77,12 @@ const Profile = () => {
       });
       
       console.log('Password change response:', response.data);
+      // The change revokes the old token; keep the session on the new one
+      if (response.data.token) {
+        localStorage.setItem('token', response.data.token);
+        axios.defaults.headers.common['Authorization'] = `Bearer ${response.data.token}`;
+        updateUser({ token: response.data.token });
+      }
       setMessage({ type: 'success', text: 'Password changed successfully!' });
       setPasswordData({
         currentPassword: '',
@@ -3,9 +3,11 @@ package com.gfgm;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableConfigurationProperties
+@EnableScheduling
 public class GfgmApplication {
     public static void main(String[] args) {
         SpringApplication.run(GfgmApplication.class, args);
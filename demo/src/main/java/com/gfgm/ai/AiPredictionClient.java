@@ -0,0 +1,256 @@
+package com.gfgm.ai;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.gfgm.config.AiSidecarProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+// Calls the prediction sidecar without holding a request thread: the JDK HttpClient keeps a connection pool and
+// completes on its own small executor, and controllers return the future. At most maxInFlight calls run at once,
+// and a circuit breaker stops calling a sidecar that keeps failing. Either way the caller gets a fast 503 fallback
+// with Retry-After instead of waiting. Only 5xx answers, timeouts and I/O errors count against the circuit; 4xx answers
+// of the sidecar are passed through, and answers that cannot be read get the fallback without counting.
+// predictBatch sends several requests to /predict/batch as one call, which counts once against both limits.
+@Slf4j
+@Component
+public class AiPredictionClient {
+    private static final String PREDICT_PATH = "/predict";
+    private static final String BATCH_PATH = "/predict/batch";
+
+    private final ObjectMapper objectMapper;
+    private final AiSidecarProperties properties;
+    private final URI predictUri;
+    private final URI batchUri;
+    private final HttpClient httpClient;
+    private final ExecutorService executor;
+    private final Semaphore inFlight;
+    private final CircuitBreaker circuitBreaker;
+    private final MeterRegistry meterRegistry;
+    // Time source of the circuit breaker, in nanoseconds
+    private final LongSupplier clock;
+
+    @Autowired
+    public AiPredictionClient(AiSidecarProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this(properties, objectMapper, meterRegistry, System::nanoTime);
+    }
+
+    AiPredictionClient(AiSidecarProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                       LongSupplier clock) {
+        this.clock = clock;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.predictUri = URI.create(properties.getBaseUrl() + PREDICT_PATH);
+        this.batchUri = URI.create(properties.getBaseUrl() + BATCH_PATH);
+        this.executor = Executors.newFixedThreadPool(2, daemonThreads());
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(properties.getConnectTimeout())
+                .executor(executor)
+                .build();
+        this.inFlight = new Semaphore(properties.getMaxInFlight());
+        this.circuitBreaker = new CircuitBreaker(properties.getFailureThreshold(), properties.getOpenDuration().toNanos());
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("ai.sidecar.in-flight", inFlight, s -> properties.getMaxInFlight() - s.availablePermits())
+                .register(meterRegistry);
+        Gauge.builder("ai.sidecar.circuit.open", circuitBreaker, b -> b.state() == CircuitBreaker.State.CLOSED ? 0 : 1)
+                .register(meterRegistry);
+    }
+
+    public CompletableFuture<ResponseEntity<JsonNode>> predict(Object request) {
+        return call(predictUri, request, 1, this::readPrediction).thenApply(results -> results.get(0));
+    }
+
+    // One sidecar call for several requests; the answers come back in request order
+    public CompletableFuture<List<ResponseEntity<JsonNode>>> predictBatch(List<?> requests) {
+        meterRegistry.summary("ai.sidecar.batch.size").record(requests.size());
+        return call(batchUri, Map.of("requests", requests), requests.size(), response -> readBatch(response, requests.size()));
+    }
+
+    private CompletableFuture<List<ResponseEntity<JsonNode>>> call(URI uri, Object request, int size,
+                                                                   Function<HttpResponse<byte[]>, List<ResponseEntity<JsonNode>>> reader) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(request);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid prediction request", e);
+        }
+        if (!inFlight.tryAcquire()) {
+            return CompletableFuture.completedFuture(
+                    Collections.nCopies(size, fallback("busy", "The AI model is busy, please retry shortly")));
+        }
+        if (!circuitBreaker.tryAcquire(clock.getAsLong())) {
+            inFlight.release();
+            return CompletableFuture.completedFuture(
+                    Collections.nCopies(size, fallback("open", "The AI model is unavailable, please retry later")));
+        }
+
+        HttpRequest httpRequest = HttpRequest.newBuilder(uri)
+                .timeout(properties.getRequestTimeout())
+                .header(HttpHeaders.CONTENT_TYPE, "application/json")
+                .header(HttpHeaders.ACCEPT, "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        long started = System.nanoTime();
+        return httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofByteArray())
+                .handle((response, error) -> {
+                    inFlight.release();
+                    List<ResponseEntity<JsonNode>> results = toResults(response, error, size, reader);
+                    meterRegistry.timer("ai.sidecar.requests", "outcome", outcomeOf(results, error))
+                            .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                    return results;
+                });
+    }
+
+    private List<ResponseEntity<JsonNode>> toResults(HttpResponse<byte[]> response, Throwable error, int size,
+                                                     Function<HttpResponse<byte[]>, List<ResponseEntity<JsonNode>>> reader) {
+        long now = clock.getAsLong();
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            // HttpTimeoutException is an IOException too
+            if (cause instanceof IOException) {
+                circuitBreaker.onFailure(now);
+            } else {
+                circuitBreaker.onIgnored();
+            }
+            log.warn("AI sidecar call failed: {}", cause.toString());
+            return Collections.nCopies(size, fallback(null, cause instanceof HttpTimeoutException
+                    ? "The AI model took too long to answer" : "Error contacting AI model"));
+        }
+        try {
+            List<ResponseEntity<JsonNode>> results = reader.apply(response);
+            circuitBreaker.onSuccess();
+            return results;
+        } catch (SidecarFailure e) {
+            if (e.serverError) {
+                circuitBreaker.onFailure(now);
+            } else {
+                circuitBreaker.onIgnored();
+            }
+            log.warn("AI sidecar call failed: {}", e.getMessage());
+            return Collections.nCopies(size, fallback(null, "Error contacting AI model"));
+        }
+    }
+
+    private List<ResponseEntity<JsonNode>> readPrediction(HttpResponse<byte[]> response) {
+        if (response.statusCode() >= 500) {
+            throw new SidecarFailure("answered " + response.statusCode(), true);
+        }
+        return List.of(ResponseEntity.status(response.statusCode()).body(readJson(response)));
+    }
+
+    // {"results": [{"status": 200, "body": {...}}, ...]}; the whole call fails unless every request has an answer.
+    // A 4xx for the whole batch is every request's answer. A 5xx for a single request becomes its fallback without
+    // counting against the circuit.
+    private List<ResponseEntity<JsonNode>> readBatch(HttpResponse<byte[]> response, int size) {
+        if (response.statusCode() >= 500) {
+            throw new SidecarFailure("answered " + response.statusCode() + " to a batch", true);
+        }
+        if (response.statusCode() / 100 == 4) {
+            return Collections.nCopies(size, ResponseEntity.status(response.statusCode()).body(readJson(response)));
+        }
+        if (response.statusCode() / 100 != 2) {
+            throw new SidecarFailure("answered " + response.statusCode() + " to a batch", false);
+        }
+        JsonNode results = readJson(response).path("results");
+        if (!results.isArray() || results.size() != size) {
+            throw new SidecarFailure("answered a batch of " + size + " without " + size + " results", false);
+        }
+        List<ResponseEntity<JsonNode>> answers = new ArrayList<>(size);
+        for (JsonNode result : results) {
+            int status = result.path("status").asInt();
+            if (status < 200 || status >= 600) {
+                throw new SidecarFailure("answered a batch result with status " + status, false);
+            }
+            answers.add(status >= 500 ? fallback(null, "Error contacting AI model")
+                    : ResponseEntity.status(status).body(result.path("body")));
+        }
+        return answers;
+    }
+
+    private JsonNode readJson(HttpResponse<byte[]> response) {
+        try {
+            return objectMapper.readTree(response.body());
+        } catch (IOException e) {
+            throw new SidecarFailure("answered with invalid JSON: " + e.getMessage(), false);
+        }
+    }
+
+    private ResponseEntity<JsonNode> fallback(String rejectedAs, String message) {
+        if (rejectedAs != null) {
+            meterRegistry.counter("ai.sidecar.rejected", "reason", rejectedAs).increment();
+        }
+        ObjectNode body = objectMapper.createObjectNode()
+                .put("error", message)
+                .put("fallback", true);
+        long retryAfter = Math.max(1, properties.getOpenDuration().toSeconds());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter))
+                .body(body);
+    }
+
+    private static String outcomeOf(List<ResponseEntity<JsonNode>> results, Throwable error) {
+        if (error != null || results.stream().anyMatch(result -> result.getStatusCode().is5xxServerError())) {
+            return "error";
+        }
+        return results.stream().allMatch(result -> result.getStatusCode().is2xxSuccessful()) ? "success" : "client-error";
+    }
+
+    CircuitBreaker.State circuitState() {
+        return circuitBreaker.state();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // The sidecar answered, but not with something usable; only a 5xx is a serverError that counts against the circuit
+    private static final class SidecarFailure extends RuntimeException {
+        private final boolean serverError;
+
+        SidecarFailure(String message, boolean serverError) {
+            super(message);
+            this.serverError = serverError;
+        }
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "ai-sidecar-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
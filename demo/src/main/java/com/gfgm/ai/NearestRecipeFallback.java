@@ -0,0 +1,47 @@
+package com.gfgm.ai;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.gfgm.index.SimilarRecipeIndex;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Objects;
+
+// While the sidecar cannot answer (its 503 fallback), /ai/predict answers with the most similar indexed recipe
+// instead, in the sidecar's recipe shape (name, ingredients, steps) marked "fallback": true. Only when nothing shares an ingredient does the caller get the 503.
+@Component
+@RequiredArgsConstructor
+public class NearestRecipeFallback {
+    private final SimilarRecipeIndex similarRecipeIndex;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    public ResponseEntity<JsonNode> orNearestRecipe(List<?> ingredients, ResponseEntity<JsonNode> response) {
+        if (response.getStatusCode() != HttpStatus.SERVICE_UNAVAILABLE) {
+            return response;
+        }
+        List<String> names = ingredients.stream().filter(Objects::nonNull).map(Object::toString).toList();
+        List<SimilarRecipeIndex.Match> nearest = similarRecipeIndex.nearest(names, 1);
+        meterRegistry.counter("ai.prediction.fallback", "answer", nearest.isEmpty() ? "none" : "similar").increment();
+        if (nearest.isEmpty()) {
+            return response;
+        }
+        SimilarRecipeIndex.Match match = nearest.get(0);
+        ObjectNode body = objectMapper.createObjectNode();
+        if (match.recipeId() != null) {
+            body.put("id", match.recipeId());
+        }
+        body.put("name", match.name());
+        body.set("ingredients", objectMapper.valueToTree(match.ingredients()));
+        body.set("steps", objectMapper.valueToTree(match.steps()));
+        body.put("similarity", match.similarity());
+        body.put("fallback", true);
+        return ResponseEntity.ok(body);
+    }
+}
@@ -0,0 +1,120 @@
+package com.gfgm.ai;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.gfgm.config.AiSidecarProperties;
+import jakarta.annotation.PreDestroy;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Collects concurrent predictions for up to batchDelay, or until batchSize are waiting, and sends them to the sidecar
+// as one /predict/batch call; each caller's future completes with its own answer. A prediction that found no company
+// in time goes to /predict alone, so a quiet server pays at most batchDelay extra.
+@Component
+public class PredictionBatcher {
+    // The sidecar answers 400 to larger batches (MAX_BATCH in gfgm-ai/app.py)
+    static final int MAX_BATCH_SIZE = 64;
+
+    private record Pending(Map<String, Object> request, CompletableFuture<ResponseEntity<JsonNode>> result) {
+    }
+
+    private final AiPredictionClient aiPredictionClient;
+    private final int batchSize;
+    private final long batchDelayNanos;
+    private final ScheduledThreadPoolExecutor timer;
+    private final Object lock = new Object();
+    private List<Pending> waiting = new ArrayList<>();
+    private ScheduledFuture<?> flush;
+
+    public PredictionBatcher(AiPredictionClient aiPredictionClient, AiSidecarProperties properties) {
+        this.aiPredictionClient = aiPredictionClient;
+        this.batchSize = Math.min(MAX_BATCH_SIZE, Math.max(1, properties.getBatchSize()));
+        this.batchDelayNanos = properties.getBatchDelay().toNanos();
+        this.timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "ai-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timer.setRemoveOnCancelPolicy(true);
+    }
+
+    public CompletableFuture<ResponseEntity<JsonNode>> predict(List<String> ingredients) {
+        Map<String, Object> request = Map.of("ingredients", ingredients);
+        if (batchSize == 1) {
+            return aiPredictionClient.predict(request);
+        }
+        Pending pending = new Pending(request, new CompletableFuture<>());
+        List<Pending> full = null;
+        synchronized (lock) {
+            waiting.add(pending);
+            if (waiting.size() >= batchSize) {
+                full = takeWaiting();
+            } else if (flush == null) {
+                flush = timer.schedule(this::flush, batchDelayNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        if (full != null) {
+            send(full);
+        }
+        return pending.result();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    private void flush() {
+        List<Pending> batch;
+        synchronized (lock) {
+            batch = takeWaiting();
+        }
+        if (!batch.isEmpty()) {
+            send(batch);
+        }
+    }
+
+    // Caller holds the lock
+    private List<Pending> takeWaiting() {
+        List<Pending> batch = waiting;
+        waiting = new ArrayList<>();
+        if (flush != null) {
+            flush.cancel(false);
+            flush = null;
+        }
+        return batch;
+    }
+
+    private void send(List<Pending> batch) {
+        try {
+            if (batch.size() == 1) {
+                Pending only = batch.get(0);
+                aiPredictionClient.predict(only.request()).whenComplete((result, error) -> complete(only, result, error));
+                return;
+            }
+            aiPredictionClient.predictBatch(batch.stream().map(Pending::request).toList())
+                    .whenComplete((results, error) -> {
+                        for (int i = 0; i < batch.size(); i++) {
+                            complete(batch.get(i), results == null ? null : results.get(i), error);
+                        }
+                    });
+        } catch (RuntimeException e) {
+            batch.forEach(pending -> pending.result().completeExceptionally(e));
+        }
+    }
+
+    private static void complete(Pending pending, ResponseEntity<JsonNode> result, Throwable error) {
+        if (error != null) {
+            pending.result().completeExceptionally(error);
+        } else {
+            pending.result().complete(result);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.gfgm.ai;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.gfgm.ingredient.IngredientNormalizer;
+import com.gfgm.ingredient.IngredientVocabulary;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+// Predictions by canonical ingredient set: names are trimmed, lower-cased, deduplicated and mapped to vocabulary ids
+// (fuzzily, by IngredientNormalizer), so the same pantry in another order, casing or spelling is one entry and reaches
+// the model in its own words. The model's binarizer ignores names outside the vocabulary, so unmatched names are left
+// out of the key and of the upstream call. The cache holds futures, so concurrent
+// requests for one set share a single sidecar call. Only answers the model will repeat (2xx, 404) stay cached;
+// hit/miss/eviction counts are published as cache.* metrics.
+@Component
+public class PredictionCache {
+    private final PredictionBatcher predictionBatcher;
+    private final IngredientVocabulary vocabulary;
+    private final IngredientNormalizer ingredientNormalizer;
+    private final AsyncCache<List<String>, ResponseEntity<JsonNode>> cache;
+
+    public PredictionCache(PredictionBatcher predictionBatcher,
+                           IngredientVocabulary vocabulary,
+                           IngredientNormalizer ingredientNormalizer,
+                           @Value("${ai.prediction-cache.maximum-size:10000}") long maximumSize,
+                           @Value("${ai.prediction-cache.ttl:PT1H}") Duration ttl,
+                           MeterRegistry meterRegistry) {
+        this.predictionBatcher = predictionBatcher;
+        this.vocabulary = vocabulary;
+        this.ingredientNormalizer = ingredientNormalizer;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "aiPrediction");
+    }
+
+    public CompletableFuture<ResponseEntity<JsonNode>> predict(List<?> ingredients) {
+        List<String> names = canonicalNames(ingredients);
+        List<Integer> ids = names.stream()
+                .map(ingredientNormalizer::idOf)
+                .filter(id -> id >= 0)
+                .distinct()
+                .sorted()
+                .toList();
+        List<String> key;
+        List<String> upstream;
+        if (vocabulary.size() == 0) {
+            // No vocabulary loaded: the canonical names themselves are the key
+            key = names;
+            upstream = names;
+        } else if (ids.isEmpty()) {
+            // Only unknown names: the model sees an empty input, whichever names they were
+            key = List.of();
+            upstream = names;
+        } else {
+            key = ids.stream().map(vocabulary::nameOf).toList();
+            upstream = key;
+        }
+
+        CompletableFuture<ResponseEntity<JsonNode>> future = cache.get(key, (k, executor) -> predictionBatcher.predict(upstream));
+        future.thenAccept(response -> {
+            if (!cacheable(response)) {
+                cache.asMap().remove(key, future);
+            }
+        });
+        return future;
+    }
+
+    private static List<String> canonicalNames(List<?> ingredients) {
+        List<String> names = ingredients == null ? List.of() : ingredients.stream()
+                .filter(Objects::nonNull)
+                .map(ingredient -> IngredientVocabulary.canonicalName(ingredient.toString()))
+                .filter(name -> !name.isEmpty())
+                .distinct()
+                .sorted()
+                .toList();
+        if (names.isEmpty()) {
+            throw new IllegalArgumentException("No ingredients provided");
+        }
+        return names;
+    }
+
+    private static boolean cacheable(ResponseEntity<JsonNode> response) {
+        return response.getStatusCode().is2xxSuccessful() || response.getStatusCode() == HttpStatus.NOT_FOUND;
+    }
+}
@@ -0,0 +1,42 @@
+package com.gfgm.cache;
+
+import com.gfgm.event.UserChangedEvent;
+import com.gfgm.index.RecipeIndex;
+import com.gfgm.model.Recipe;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Moves on every committed recipe or author change; list pages use it as their weak ETag.
+// It is fed by RecipeIndexer like the search indexes, so it only moves once a write is visible.
+@Component
+public class CatalogueVersion implements RecipeIndex {
+    // Start time of this instance, so a restart never hands out a version an old response already carries
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong changes = new AtomicLong();
+
+    @Override
+    public void index(Recipe recipe) {
+        changes.incrementAndGet();
+    }
+
+    @Override
+    public void remove(Long recipeId) {
+        changes.incrementAndGet();
+    }
+
+    @Override
+    public void clear() {
+        changes.incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        changes.incrementAndGet();
+    }
+
+    public String current() {
+        return epoch + "." + changes.get();
+    }
+}
@@ -0,0 +1,63 @@
+package com.gfgm.cache;
+
+import com.gfgm.dto.RecipeDTO;
+import com.gfgm.event.RecipeChangedEvent;
+import com.gfgm.event.RecipesChangedEvent;
+import com.gfgm.event.UserChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+// Bounded cache of GET /recipes/{id} responses; hit/miss/eviction counts are published as cache.* metrics
+@Component
+public class RecipeDetailCache {
+    private final Cache<Long, RecipeDTO> cache;
+
+    public RecipeDetailCache(@Value("${recipes.cache.detail.maximum-size:10000}") long maximumSize,
+                             @Value("${recipes.cache.detail.ttl:PT10M}") Duration ttl,
+                             MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "recipeDetail");
+    }
+
+    // Concurrent misses on the same id wait for a single load; missing recipes are not cached
+    public Optional<RecipeDTO> get(Long id, Function<Long, Optional<RecipeDTO>> loader) {
+        return Optional.ofNullable(cache.get(id, key -> loader.apply(key).orElse(null)));
+    }
+
+    public void evict(Long recipeId) {
+        cache.invalidate(recipeId);
+    }
+
+    // Cached DTOs embed the author summary, so any change to the user drops that user's recipes
+    public void evictByAuthor(Long userId) {
+        cache.asMap().values().removeIf(dto -> dto.getAuthor() != null && userId.equals(dto.getAuthor().getId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        evict(event.getRecipeId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipesChanged(RecipesChangedEvent event) {
+        cache.invalidateAll(event.getRecipeIds());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        evictByAuthor(event.getUserId());
+    }
+}
@@ -0,0 +1,27 @@
+package com.gfgm.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// Connection to the Flask prediction sidecar (gfgm-ai/app.py) used by AiPredictionClient (ai.sidecar.* properties)
+@Data
+@Component
+@ConfigurationProperties(prefix = "ai.sidecar")
+public class AiSidecarProperties {
+    private String baseUrl = "http://localhost:5000";
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    // Whole request, from sending to the last byte of the answer
+    private Duration requestTimeout = Duration.ofSeconds(10);
+    // Calls beyond this many in flight get the fallback straight away
+    private int maxInFlight = 8;
+    // Consecutive failures (5xx, timeouts, connection errors) that open the circuit, and how long it stays open
+    private int failureThreshold = 5;
+    private Duration openDuration = Duration.ofSeconds(30);
+    // Concurrent predictions wait up to batchDelay to go out together, at most batchSize (up to 64) per call;
+    // 1 turns batching off
+    private int batchSize = 16;
+    private Duration batchDelay = Duration.ofMillis(5);
+}
@@ -0,0 +1,60 @@
+package com.gfgm.config;
+
+import com.gfgm.model.IdGenerators;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// Recipes and ingredients used IDENTITY columns before their ids came from IdGenerators.TABLE, so on an
+// existing database the generator rows would start below ids already in use. Before the first insert,
+// each row is raised past MAX(id) plus a whole block; it is never lowered, so rerunning (or several
+// instances starting at once) is harmless.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IdGeneratorAlignment implements SmartInitializingSingleton {
+    private static final Map<String, String> ENTITY_TABLES = Map.of(
+            IdGenerators.RECIPES, "recipes",
+            IdGenerators.INGREDIENTS, "ingredients");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        ENTITY_TABLES.forEach(this::align);
+    }
+
+    private void align(String generator, String entityTable) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + entityTable, Long.class);
+        long floor = (maxId != null ? maxId : 0) + IdGenerators.ALLOCATION_SIZE + 1;
+
+        int raised = jdbcTemplate.update("UPDATE " + IdGenerators.TABLE + " SET " + IdGenerators.VALUE_COLUMN + " = ?"
+                        + " WHERE " + IdGenerators.NAME_COLUMN + " = ? AND " + IdGenerators.VALUE_COLUMN + " < ?",
+                floor, generator, floor);
+        if (raised == 0 && maxId != null && !exists(generator)) {
+            try {
+                jdbcTemplate.update("INSERT INTO " + IdGenerators.TABLE + " (" + IdGenerators.NAME_COLUMN + ", "
+                        + IdGenerators.VALUE_COLUMN + ") VALUES (?, ?)", generator, floor);
+                raised = 1;
+            } catch (DuplicateKeyException e) {
+                // Another instance created it first; align against that row instead
+                align(generator, entityTable);
+                return;
+            }
+        }
+        if (raised > 0) {
+            log.info("Raised the {} id generator to {} (max id {})", generator, floor, maxId);
+        }
+    }
+
+    private boolean exists(String generator) {
+        Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + IdGenerators.TABLE
+                + " WHERE " + IdGenerators.NAME_COLUMN + " = ?", Integer.class, generator);
+        return rows != null && rows > 0;
+    }
+}
@@ -0,0 +1,33 @@
+package com.gfgm.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+// Budgets of RateLimitFilter, one token bucket per client and endpoint class (rate-limit.* properties)
+@Data
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+
+    private Budget auth = new Budget(10, 10);
+    private Budget search = new Budget(30, 120);
+    private Budget ai = new Budget(5, 10);
+    private Budget write = new Budget(30, 60);
+
+    @Data
+    public static class Budget {
+        // Burst size
+        private int capacity;
+        private int refillPerMinute;
+
+        public Budget() {
+        }
+
+        public Budget(int capacity, int refillPerMinute) {
+            this.capacity = capacity;
+            this.refillPerMinute = refillPerMinute;
+        }
+    }
+}
@@ -1,17 +1,31 @@
 package com.gfgm.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.gfgm.dto.*;
+import com.gfgm.importer.RecipeImportFormat;
+import com.gfgm.importer.RecipeImportService;
+import com.gfgm.index.RecipeIndexer;
+import com.gfgm.ingredient.IngredientVocabularyBackfill;
+import com.gfgm.model.RecipeCategory;
 import com.gfgm.model.Role;
 import com.gfgm.model.User;
+import com.gfgm.service.AuthService;
+import com.gfgm.service.BulkAdminService;
 import com.gfgm.service.RecipeService;
 import com.gfgm.service.UserService;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -27,6 +41,24 @@ public class AdminController {
     @Autowired
     private RecipeService recipeService;
 
+    @Autowired
+    private RecipeIndexer recipeIndexer;
+
+    @Autowired
+    private IngredientVocabularyBackfill ingredientVocabularyBackfill;
+
+    @Autowired
+    private RecipeImportService recipeImportService;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private BulkAdminService bulkAdminService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @GetMapping("/stats")
     public ResponseEntity<Map<String, Object>> getStats() {
         Map<String, Object> stats = new HashMap<>();
@@ -77,9 +109,85 @@ public class AdminController {
         return ResponseEntity.noContent().build();
     }
 
+    // Rebuilds the in-memory recipe indexes (search, ...) from the database, and re-resolves the stored
+    // ingredients' vocabulary ids
+    @PostMapping("/indexes/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildIndexes() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("indexedRecipes", recipeIndexer.rebuildAll());
+        result.put("backfilledIngredients", ingredientVocabularyBackfill.backfill());
+        return ResponseEntity.ok(result);
+    }
+
+    // Bulk import into the calling admin's account. The body is streamed: NDJSON (or one JSON array) with
+    // Content-Type application/x-ndjson or application/json, or CSV with text/csv. The answer streams back
+    // as NDJSON: an "error" line per rejected row, a "progress" line per committed chunk, then "done".
+    @PostMapping("/recipes/import")
+    public void importRecipes(
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            @RequestParam(required = false) Integer chunkSize,
+            @RequestParam(defaultValue = "true") boolean published,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        RecipeImportFormat format = RecipeImportFormat.fromContentType(contentType);
+        Long ownerId = authService.getCurrentUserId();
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        ServletOutputStream out = response.getOutputStream();
+        recipeImportService.importRecipes(request.getInputStream(), format, chunkSize, published, ownerId, event -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(event));
+                out.write('\n');
+                // Errors ride along with the next progress line
+                if (!RecipeImportEvent.ERROR.equals(event.getEvent())) {
+                    out.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
     @DeleteMapping("/recipes/{recipeId}")
     public ResponseEntity<Void> deleteRecipe(@PathVariable Long recipeId) {
         recipeService.deleteRecipe(recipeId);
         return ResponseEntity.noContent().build();
     }
+
+    // Bulk moderation: the body selects recipes by "ids" or by filter (userId, generatedByAi, published,
+    // category, olderThanDays), e.g. {"generatedByAi": true, "published": false, "olderThanDays": 30}.
+    // Each answers with the number of rows changed.
+    @PostMapping("/recipes/bulk/publish")
+    public ResponseEntity<Map<String, Object>> publishRecipes(@RequestBody RecipeBulkRequest request) {
+        return affected(bulkAdminService.setPublished(request, true));
+    }
+
+    @PostMapping("/recipes/bulk/unpublish")
+    public ResponseEntity<Map<String, Object>> unpublishRecipes(@RequestBody RecipeBulkRequest request) {
+        return affected(bulkAdminService.setPublished(request, false));
+    }
+
+    @PostMapping("/recipes/bulk/recategorize")
+    public ResponseEntity<Map<String, Object>> recategorizeRecipes(
+            @RequestParam RecipeCategory category,
+            @RequestBody RecipeBulkRequest request) {
+        return affected(bulkAdminService.recategorize(request, category));
+    }
+
+    @PostMapping("/recipes/bulk/delete")
+    public ResponseEntity<Map<String, Object>> deleteRecipes(@RequestBody RecipeBulkRequest request) {
+        return affected(bulkAdminService.deleteRecipes(request));
+    }
+
+    // Deletes the listed users and everything they own
+    @PostMapping("/users/bulk/delete")
+    public ResponseEntity<Map<String, Object>> deleteUsers(@RequestBody UserBulkDeleteRequest request) {
+        return affected(bulkAdminService.deleteUsers(request.getIds()));
+    }
+
+    private static ResponseEntity<Map<String, Object>> affected(int count) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("affected", count);
+        return ResponseEntity.ok(result);
+    }
 } 
\ No newline at end of file
@@ -1,46 +1,52 @@
 package com.gfgm.controller;
 
-
-import org.springframework.http.*;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.gfgm.ai.NearestRecipeFallback;
+import com.gfgm.ai.PredictionCache;
+import com.gfgm.index.SimilarRecipeIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.client.RestTemplate;
 
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/ai")
+@RequiredArgsConstructor
 public class RecipeAIController {
+    private static final int MAX_SIMILAR = 50;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final PredictionCache predictionCache;
+    private final NearestRecipeFallback nearestRecipeFallback;
+    private final SimilarRecipeIndex similarRecipeIndex;
 
-//    @PostMapping("/predict")
-//    public ResponseEntity<?> getAIPrediction(@RequestBody Map<String, Object> body) {
-//        String flaskUrl = "http://localhost:5000/predict"; // Flask server
-//        try {
-//            HttpHeaders headers = new HttpHeaders();
-//            headers.setContentType(MediaType.APPLICATION_JSON);
-//            HttpEntity<Map<String, Object>> request = new HttpEntity<>(body, headers);
-//            ResponseEntity<String> response = restTemplate.postForEntity(flaskUrl, request, String.class);
-//            return ResponseEntity.ok().body(response.getBody());
-//        } catch (Exception e) {
-//            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error contacting AI model");
-//        }
-//    }
+    // Answered asynchronously: the request thread is released while the sidecar works
     @PostMapping("/predict")
-    public ResponseEntity<?> getAIPrediction(@RequestBody Map<String, Object> body) {
-        String flaskUrl = "http://localhost:5000/predict";
-        try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            HttpEntity<Map<String, Object>> request = new HttpEntity<>(body, headers);
-            ResponseEntity<Map> response = restTemplate.postForEntity(flaskUrl, request, Map.class);
-            return ResponseEntity.ok(response.getBody());
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error contacting AI model");
-        }
+    public CompletableFuture<ResponseEntity<JsonNode>> getAIPrediction(@RequestBody Map<String, Object> body) {
+        List<?> ingredients = ingredients(body);
+        return predictionCache.predict(ingredients)
+                .thenApply(response -> nearestRecipeFallback.orNearestRecipe(ingredients, response));
+    }
+
+    // Top recipes by ingredient overlap, answered in memory without the sidecar
+    @PostMapping("/similar")
+    public List<SimilarRecipeIndex.Match> getSimilarRecipes(@RequestBody Map<String, Object> body,
+                                                           @RequestParam(defaultValue = "5") int limit) {
+        List<String> names = ingredients(body).stream().filter(Objects::nonNull).map(Object::toString).toList();
+        return similarRecipeIndex.nearest(names, Math.min(limit, MAX_SIMILAR));
     }
 
+    private static List<?> ingredients(Map<String, Object> body) {
+        if (!(body.get("ingredients") instanceof List<?> ingredients)) {
+            throw new IllegalArgumentException("No ingredients provided");
+        }
+        return ingredients;
+    }
 }
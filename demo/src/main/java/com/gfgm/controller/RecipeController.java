@@ -1,7 +1,13 @@
 package com.gfgm.controller;
 
+import com.gfgm.cache.CatalogueVersion;
+import com.gfgm.dto.ImageStatusResponse;
+import com.gfgm.dto.NutritionFilter;
 import com.gfgm.dto.RecipeDTO;
 import com.gfgm.dto.RecipeRequest;
+import com.gfgm.dto.RecipeVersion;
+import com.gfgm.image.ImagePipeline;
+import com.gfgm.index.NutritionIndex;
 import com.gfgm.model.Recipe;
 import com.gfgm.mapper.RecipeMapper;
 import com.gfgm.service.RecipeService;
@@ -12,22 +18,38 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
 @RestController
 @RequestMapping("/recipes")
 @RequiredArgsConstructor
 public class RecipeController {
+    private static final String VIEW_FULL = "full";
+    private static final String VIEW_CARD = "card";
+
+    // Clients may store responses but must revalidate them; unchanged ones come back as a bodiless 304
+    private static final CacheControl REVALIDATE = CacheControl.noCache();
+    private static final CacheControl REVALIDATE_PRIVATE = CacheControl.noCache().cachePrivate();
+
     private final RecipeService recipeService;
     private final RecipeMapper recipeMapper;
+    private final CatalogueVersion catalogueVersion;
+    private final ImagePipeline imagePipeline;
 
     @PostMapping
     public ResponseEntity<Recipe> createRecipe(
             @Valid @RequestPart("recipe") RecipeRequest request,
             @RequestPart(value = "image", required = false) MultipartFile image) {
-        return ResponseEntity.ok(recipeService.createRecipe(request, image));
+        return ResponseEntity.ok(imagePipeline.withStagedImage(image, staged -> recipeService.createRecipe(request, staged)));
     }
 
     @PutMapping("/{id}")
@@ -35,7 +57,15 @@ public class RecipeController {
             @PathVariable Long id,
             @Valid @RequestPart("recipe") RecipeRequest request,
             @RequestPart(value = "image", required = false) MultipartFile image) {
-        return ResponseEntity.ok(recipeService.updateRecipe(id, request, image));
+        return ResponseEntity.ok(imagePipeline.withStagedImage(image, staged -> recipeService.updateRecipe(id, request, staged)));
+    }
+
+    // Polled after an upload until status is READY or FAILED
+    @GetMapping("/{id}/image")
+    public ResponseEntity<ImageStatusResponse> getImageStatus(@PathVariable Long id) {
+        return recipeService.getImageStatus(id)
+                .map(status -> ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(status))
+                .orElse(ResponseEntity.notFound().build());
     }
 
     @DeleteMapping("/{id}")
@@ -44,51 +74,150 @@ public class RecipeController {
         return ResponseEntity.noContent().build();
     }
 
+    // Strong ETag and Last-Modified come from the updatedAt columns alone; the detail is only built on a miss
     @GetMapping("/{id}")
-    public ResponseEntity<RecipeDTO> getRecipe(@PathVariable Long id) {
+    public ResponseEntity<RecipeDTO> getRecipe(@PathVariable Long id, WebRequest webRequest) {
+        Optional<RecipeVersion> version = recipeService.getRecipeVersion(id);
+        if (version.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (version.get().isKnown()
+                && webRequest.checkNotModified(version.get().toETag(), version.get().getLastModifiedMillis())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE).build();
+        }
         return recipeService.getRecipeById(id)
-                .map(ResponseEntity::ok)
+                .map(recipe -> ResponseEntity.ok().cacheControl(REVALIDATE).body(recipe))
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    // Passing ?cursor= (empty for the first page) switches a listing to keyset pagination, newest first.
+    // view=card returns RecipeCardDTO rows instead of full recipes.
+    // Only published recipes are listed, whichever way the page is fetched. Any macro bound (minProtein, maxCalories,
+    // category, ...) filters them in memory, and so does sorting by calories, protein, carbs, fat, fiber, sugar or
+    // proteinPer100Kcal, which the entity cannot all sort by.
     @GetMapping
-    public ResponseEntity<Page<RecipeDTO>> getAllRecipes(
+    public ResponseEntity<?> getAllRecipes(
         @RequestParam(defaultValue = "0") int page,
         @RequestParam(defaultValue = "10") int size,
         @RequestParam(defaultValue = "createdAt") String sortBy,
-        @RequestParam(defaultValue = "DESC") String direction) {
+        @RequestParam(defaultValue = "DESC") String direction,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "false") boolean withTotal,
+        @RequestParam(defaultValue = VIEW_FULL) String view,
+        NutritionFilter nutritionFilter,
+        WebRequest webRequest) {
+        if (webRequest.checkNotModified(listETag(webRequest))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE).build();
+        }
+        boolean cards = VIEW_CARD.equalsIgnoreCase(view);
+        if (nutritionFilter.isActive() || NutritionIndex.Column.isProperty(sortBy)) {
+            Sort.Direction sortDirection = Sort.Direction.fromString(direction);
+            Pageable pageable = PageRequest.of(page, size);
+            return listPage(cards
+                    ? recipeService.filterCardsByNutrition(nutritionFilter, sortBy, sortDirection, pageable)
+                    : recipeService.filterByNutrition(nutritionFilter, sortBy, sortDirection, pageable));
+        }
+        if (cursor != null) {
+            return listPage(cards
+                    ? recipeService.getPublishedRecipeCards(cursor, size, withTotal)
+                    : recipeService.getPublishedRecipes(cursor, size, withTotal));
+        }
         Sort.Direction sortDirection = Sort.Direction.fromString(direction);
         Pageable pageable = PageRequest.of(page, size, Sort.by(sortDirection, sortBy));
-        Page<RecipeDTO> recipes = recipeService.getAllRecipes(pageable);
-        return ResponseEntity.ok(recipes);
+        if (cards) {
+            return listPage(recipeService.getPublishedRecipeCards(pageable));
+        }
+        Page<RecipeDTO> recipes = recipeService.getPublishedRecipes(pageable);
+        return listPage(recipes);
     }
 
     @GetMapping("/my-recipes")
-    public ResponseEntity<Page<RecipeDTO>> getUserRecipes(
+    public ResponseEntity<?> getUserRecipes(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean withTotal,
+            WebRequest webRequest) {
+        if (webRequest.checkNotModified(listETag(webRequest))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE_PRIVATE).build();
+        }
+        if (cursor != null) {
+            return privateListPage(recipeService.getUserRecipes(cursor, size, withTotal));
+        }
         Pageable pageable = PageRequest.of(page, size);
         Page<Recipe> recipePage = recipeService.getUserRecipes(pageable);
         Page<RecipeDTO> dtoPage = recipePage.map(recipeMapper::toDTO);
-        return ResponseEntity.ok(dtoPage);
+        return privateListPage(dtoPage);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Page<RecipeDTO>> searchRecipes(
+    public ResponseEntity<?> searchRecipes(
         @RequestParam String query,
         @RequestParam(defaultValue = "0") int page,
-        @RequestParam(defaultValue = "10") int size) {
+        @RequestParam(defaultValue = "10") int size,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "false") boolean withTotal,
+        @RequestParam(defaultValue = VIEW_FULL) String view,
+        WebRequest webRequest) {
+        if (webRequest.checkNotModified(listETag(webRequest))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE).build();
+        }
+        boolean cards = VIEW_CARD.equalsIgnoreCase(view);
+        if (cursor != null) {
+            return listPage(cards
+                    ? recipeService.searchRecipeCards(query, cursor, size, withTotal)
+                    : recipeService.searchRecipes(query, cursor, size, withTotal));
+        }
         Pageable pageable = PageRequest.of(page, size);
+        if (cards) {
+            return listPage(recipeService.searchRecipeCards(query, pageable));
+        }
         Page<RecipeDTO> recipes = recipeService.searchRecipes(query, pageable);
-        return ResponseEntity.ok(recipes);
+        return listPage(recipes);
+    }
+
+    // e.g. ?include=chicken,rice&exclude=peanut; served from the in-memory ingredient bitmaps
+    @GetMapping("/by-ingredients")
+    public ResponseEntity<?> findByIngredients(
+            @RequestParam(required = false) List<String> include,
+            @RequestParam(required = false) List<String> exclude,
+            @RequestParam(required = false) List<String> anyOf,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = VIEW_FULL) String view,
+            WebRequest webRequest) {
+        if (webRequest.checkNotModified(listETag(webRequest))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE).build();
+        }
+        Pageable pageable = PageRequest.of(page, size);
+        if (VIEW_CARD.equalsIgnoreCase(view)) {
+            return listPage(recipeService.findCardsByIngredients(include, exclude, anyOf, pageable));
+        }
+        return listPage(recipeService.findByIngredients(include, exclude, anyOf, pageable));
     }
 
     @GetMapping("/ai")
-    public ResponseEntity<Page<RecipeDTO>> getAiGeneratedRecipes(
-            @PageableDefault(size = 12, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable) {
+    public ResponseEntity<?> getAiGeneratedRecipes(
+            @PageableDefault(size = 12, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean withTotal,
+            @RequestParam(defaultValue = VIEW_FULL) String view,
+            WebRequest webRequest) {
+        if (webRequest.checkNotModified(listETag(webRequest))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE).build();
+        }
+        boolean cards = VIEW_CARD.equalsIgnoreCase(view);
+        if (cursor != null) {
+            return listPage(cards
+                    ? recipeService.getAiGeneratedRecipeCards(cursor, pageable.getPageSize(), withTotal)
+                    : recipeService.getAiGeneratedRecipes(cursor, pageable.getPageSize(), withTotal));
+        }
+        if (cards) {
+            return listPage(recipeService.getAiGeneratedRecipeCards(pageable));
+        }
         Page<Recipe> recipePage = recipeService.getAiGeneratedRecipes(pageable);
         Page<RecipeDTO> dtoPage = recipePage.map(recipeMapper::toDTO);
-        return ResponseEntity.ok(dtoPage);
+        return listPage(dtoPage);
     }
 
     @PostMapping("/ai/save")
@@ -96,4 +225,22 @@ public class RecipeController {
         Recipe recipe = recipeService.saveAiGeneratedRecipe(request);
         return ResponseEntity.ok(recipeMapper.toDTO(recipe));
     }
-}
\ No newline at end of file
+
+    // Weak ETag for a list page: the catalogue version plus the exact request, including who asked.
+    // The version is read before the page is queried, so a tag never claims more than its body shows.
+    private String listETag(WebRequest webRequest) {
+        String request = webRequest.getDescription(false) + "?" + webRequest.getParameterMap().entrySet().stream()
+                .map(param -> param.getKey() + "=" + String.join(",", param.getValue()))
+                .sorted()
+                .collect(Collectors.joining("&")) + "|" + webRequest.getRemoteUser();
+        return "W/\"" + catalogueVersion.current() + "-" + Integer.toHexString(request.hashCode()) + "\"";
+    }
+
+    private static ResponseEntity<Object> listPage(Object body) {
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(body);
+    }
+
+    private static ResponseEntity<Object> privateListPage(Object body) {
+        return ResponseEntity.ok().cacheControl(REVALIDATE_PRIVATE).body(body);
+    }
+}
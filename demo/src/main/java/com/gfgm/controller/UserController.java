@@ -1,11 +1,14 @@
 package com.gfgm.controller;
 
+import com.gfgm.dto.ImageStatusResponse;
 import com.gfgm.dto.UserPasswordUpdateRequest;
 import com.gfgm.dto.UserUpdateRequest;
 import com.gfgm.dto.UserUpdateResponse;
+import com.gfgm.image.ImagePipeline;
 import com.gfgm.model.User;
 import com.gfgm.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
@@ -15,6 +18,7 @@ import org.springframework.web.multipart.MultipartFile;
 @RequiredArgsConstructor
 public class UserController {
     private final UserService userService;
+    private final ImagePipeline imagePipeline;
 
     @PutMapping("/profile")
     public ResponseEntity<UserUpdateResponse> updateProfile(@RequestBody UserUpdateRequest request) {
@@ -23,12 +27,18 @@ public class UserController {
 
     @PutMapping("/profile/picture")
     public ResponseEntity<User> updateProfilePicture(@RequestParam("image") MultipartFile image) {
-        return ResponseEntity.ok(userService.updateProfilePicture(image));
+        return ResponseEntity.ok(imagePipeline.withStagedImage(image, userService::updateProfilePicture));
     }
 
+    // Polled after an upload until status is READY or FAILED
+    @GetMapping("/profile/picture")
+    public ResponseEntity<ImageStatusResponse> getProfilePictureStatus() {
+        return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(userService.getProfilePictureStatus());
+    }
+
+    // Answers with a new token, as the change revokes the one used for this request
     @PutMapping("/profile/password")
-    public ResponseEntity<?> updatePassword(@RequestBody UserPasswordUpdateRequest request) {
-        userService.updatePassword(request);
-        return ResponseEntity.ok().body("Password updated successfully");
+    public ResponseEntity<UserUpdateResponse> updatePassword(@RequestBody UserPasswordUpdateRequest request) {
+        return ResponseEntity.ok(userService.updatePassword(request));
     }
 } 
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.gfgm.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Keyset page: pass nextCursor back as ?cursor= to get the following page
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> content;
+    private String nextCursor;
+    private boolean hasNext;
+    // Only filled when the caller asks for it with withTotal=true
+    private Long totalElements;
+}
@@ -0,0 +1,19 @@
+package com.gfgm.dto;
+
+import com.gfgm.model.ImageStatus;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Polled after an upload: imageUrl is the image currently shown, which changes once status turns READY
+@Data
+@NoArgsConstructor
+public class ImageStatusResponse {
+    private ImageStatus status;
+    private String imageUrl;
+
+    public ImageStatusResponse(ImageStatus status, String imageUrl) {
+        // Images stored before the pipeline existed have no status but are ready
+        this.status = status == null && imageUrl != null ? ImageStatus.READY : status;
+        this.imageUrl = imageUrl;
+    }
+}
@@ -8,4 +8,5 @@ public class IngredientDTO {
     private String name;
     private Double amount;
     private String unit;
+    private Integer vocabularyId;
 }
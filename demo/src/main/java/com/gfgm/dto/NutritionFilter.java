@@ -0,0 +1,38 @@
+package com.gfgm.dto;
+
+import com.gfgm.model.RecipeCategory;
+import lombok.Data;
+
+// Macro ranges for GET /recipes, bound from query parameters (e.g. ?minProtein=40&maxCalories=600&category=DINNER)
+@Data
+public class NutritionFilter {
+    private Double minCalories;
+    private Double maxCalories;
+    private Double minProtein;
+    private Double maxProtein;
+    private Double minCarbs;
+    private Double maxCarbs;
+    private Double minFat;
+    private Double maxFat;
+    private Double minFiber;
+    private Double maxFiber;
+    private Double minSugar;
+    private Double maxSugar;
+
+    // Grams of protein per 100 kcal
+    private Double minProteinPer100Kcal;
+    private Double maxProteinPer100Kcal;
+
+    private RecipeCategory category;
+
+    public boolean isActive() {
+        return minCalories != null || maxCalories != null
+                || minProtein != null || maxProtein != null
+                || minCarbs != null || maxCarbs != null
+                || minFat != null || maxFat != null
+                || minFiber != null || maxFiber != null
+                || minSugar != null || maxSugar != null
+                || minProteinPer100Kcal != null || maxProteinPer100Kcal != null
+                || category != null;
+    }
+}
@@ -0,0 +1,28 @@
+package com.gfgm.dto;
+
+import com.gfgm.model.RecipeCategory;
+import lombok.Data;
+
+import java.util.List;
+
+// Selects the recipes of a bulk admin operation: an explicit id list, or any combination of the filter fields
+@Data
+public class RecipeBulkRequest {
+    private List<Long> ids;
+
+    private Long userId;
+    private Boolean generatedByAi;
+    private Boolean published;
+    private RecipeCategory category;
+    // Only recipes created more than this many days ago
+    private Integer olderThanDays;
+
+    public boolean hasIds() {
+        return ids != null && !ids.isEmpty();
+    }
+
+    public boolean hasFilter() {
+        return userId != null || generatedByAi != null || published != null || category != null
+                || olderThanDays != null;
+    }
+}
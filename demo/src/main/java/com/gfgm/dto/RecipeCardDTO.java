@@ -0,0 +1,33 @@
+package com.gfgm.dto;
+
+import com.gfgm.model.RecipeCategory;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Grid/list view of a recipe, built directly by a JPQL constructor expression (see RecipeRepository.CARD_SELECT)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipeCardDTO {
+    private Long id;
+    private String title;
+    private String imageUrl;
+    private Integer prepTime;
+    private Integer cookTime;
+    private Integer servings;
+    private RecipeCategory category;
+
+    // Nutrition information
+    private Double calories;
+    private Double protein;
+    private Double carbs;
+    private Double fat;
+    private Double fiber;
+    private Double sugar;
+
+    private boolean generatedByAi;
+    private LocalDateTime createdAt;
+}
@@ -1,5 +1,6 @@
 package com.gfgm.dto;
 
+import com.gfgm.model.ImageStatus;
 import lombok.Data;
 
 import java.time.LocalDateTime;
@@ -13,6 +14,7 @@ public class RecipeDTO {
     private String description;
     private String instructions;
     private String imageUrl;
+    private ImageStatus imageStatus;
     private Integer prepTime;
     private Integer cookTime;
     private Integer servings;
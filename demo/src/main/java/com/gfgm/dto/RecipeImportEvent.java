@@ -0,0 +1,28 @@
+package com.gfgm.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One line of the NDJSON stream POST /admin/recipes/import answers with
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RecipeImportEvent {
+    public static final String ERROR = "error";
+    public static final String PROGRESS = "progress";
+    public static final String DONE = "done";
+
+    private String event;
+    private Long row; // 1-based position of the record in the upload, for errors
+    private String message;
+    private Long rows;
+    private Long imported;
+    private Long failed;
+    private Long elapsedMs;
+    private Long recipesPerSecond;
+}
@@ -0,0 +1,41 @@
+package com.gfgm.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+
+// Validators for GET /recipes/{id}; the detail embeds the author, so both timestamps take part
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipeVersion {
+    private Long id;
+    private LocalDateTime recipeUpdatedAt;
+    private LocalDateTime authorUpdatedAt;
+
+    public boolean isKnown() {
+        return recipeUpdatedAt != null;
+    }
+
+    public String toETag() {
+        return "\"" + id + "-" + Long.toHexString(epochMicros(recipeUpdatedAt))
+                + "-" + Long.toHexString(epochMicros(authorUpdatedAt)) + "\"";
+    }
+
+    public long getLastModifiedMillis() {
+        LocalDateTime lastModified = authorUpdatedAt != null && authorUpdatedAt.isAfter(recipeUpdatedAt)
+                ? authorUpdatedAt : recipeUpdatedAt;
+        return lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static long epochMicros(LocalDateTime time) {
+        if (time == null) {
+            return 0L;
+        }
+        return ChronoUnit.MICROS.between(LocalDateTime.of(1970, 1, 1, 0, 0), time);
+    }
+}
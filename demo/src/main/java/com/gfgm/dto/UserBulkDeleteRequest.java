@@ -0,0 +1,10 @@
+package com.gfgm.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class UserBulkDeleteRequest {
+    private List<Long> ids;
+}
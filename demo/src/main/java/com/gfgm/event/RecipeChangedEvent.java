@@ -0,0 +1,12 @@
+package com.gfgm.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// Published by the service layer whenever a recipe row (or its ingredients) changes
+@Getter
+@RequiredArgsConstructor
+public class RecipeChangedEvent {
+    private final Long recipeId;
+    private final boolean deleted;
+}
@@ -0,0 +1,14 @@
+package com.gfgm.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+// Bulk counterpart of RecipeChangedEvent, published once per batch by set-based writes
+@Getter
+@RequiredArgsConstructor
+public class RecipesChangedEvent {
+    private final List<Long> recipeIds;
+    private final boolean deleted;
+}
@@ -0,0 +1,12 @@
+package com.gfgm.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// Published when a user's profile, role or credentials change, or the user is deleted
+@Getter
+@RequiredArgsConstructor
+public class UserChangedEvent {
+    private final Long userId;
+    private final boolean deleted;
+}
@@ -0,0 +1,15 @@
+package com.gfgm.exception;
+
+// Thrown when a bounded resource is saturated; GlobalExceptionHandler answers 429 with Retry-After
+public class TooManyRequestsException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
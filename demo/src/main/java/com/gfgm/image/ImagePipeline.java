@@ -0,0 +1,202 @@
+package com.gfgm.image;
+
+import com.gfgm.exception.TooManyRequestsException;
+import com.gfgm.model.ImageStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+// Image uploads are parked in a staging directory on the request thread (a rename for multipart parts already
+// on disk), and validated, stripped, re-encoded and put into the ImageStore on a small pool once the row that
+// is waiting for them has committed. The pool holds at most threads + queue-capacity uploads, staged or in flight;
+// beyond that uploads are refused with a 429. Failed writes are retried with a growing delay.
+@Slf4j
+@Component
+public class ImagePipeline {
+    private static final long RETRY_AFTER_SECONDS = 2;
+
+    // Told how processing ended, with the stored name when READY (then inside the ImageStore transaction that should
+    // acquire it); answers false when the owner has moved on
+    @FunctionalInterface
+    public interface Completion {
+        boolean complete(ImageStatus status, String filename);
+    }
+
+    private final ImageStore imageStore;
+    private final Path stagingDir;
+    private final long maxPixels;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final Semaphore slots;
+    private final ScheduledThreadPoolExecutor executor;
+    private final Counter rejected;
+    private final MeterRegistry meterRegistry;
+
+    public ImagePipeline(ImageStore imageStore,
+                         @Value("${images.staging-dir:${java.io.tmpdir}/gfgm-image-staging}") String stagingDir,
+                         @Value("${images.pipeline.threads:2}") int threads,
+                         @Value("${images.pipeline.queue-capacity:64}") int queueCapacity,
+                         @Value("${images.pipeline.max-attempts:3}") int maxAttempts,
+                         @Value("${images.pipeline.retry-backoff:PT1S}") Duration retryBackoff,
+                         @Value("${images.max-pixels:40000000}") long maxPixels,
+                         MeterRegistry meterRegistry) {
+        this.imageStore = imageStore;
+        this.stagingDir = Paths.get(stagingDir);
+        this.maxPixels = maxPixels;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.slots = new Semaphore(threads + queueCapacity);
+        this.executor = new ScheduledThreadPoolExecutor(threads, daemonThreads());
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("images.pipeline.queue", executor, e -> e.getQueue().size()).register(meterRegistry);
+        Gauge.builder("images.pipeline.active", executor, ScheduledThreadPoolExecutor::getActiveCount).register(meterRegistry);
+        this.rejected = Counter.builder("images.pipeline.rejected").register(meterRegistry);
+    }
+
+    // Stages the upload (if any) and hands it to action; a staged upload the action fails with is discarded
+    public <T> T withStagedImage(MultipartFile file, Function<StagedImage, T> action) {
+        if (file == null || file.isEmpty()) {
+            return action.apply(null);
+        }
+        StagedImage image = stage(file);
+        try {
+            return action.apply(image);
+        } catch (RuntimeException e) {
+            discard(image);
+            throw e;
+        }
+    }
+
+    // Inside a transaction processing starts once it commits and a rollback discards the upload
+    public void process(StagedImage image, Completion completion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submit(image, completion, 1, Duration.ZERO);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    submit(image, completion, 1, Duration.ZERO);
+                } else {
+                    discard(image);
+                }
+            }
+        });
+    }
+
+    public void discard(StagedImage image) {
+        if (image.release()) {
+            deleteQuietly(image.getPath());
+            slots.release();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private StagedImage stage(MultipartFile file) {
+        if (!slots.tryAcquire()) {
+            rejected.increment();
+            throw new TooManyRequestsException("Too many images are being processed, please retry shortly",
+                    RETRY_AFTER_SECONDS);
+        }
+        Path staged = stagingDir.resolve(UUID.randomUUID() + ".upload");
+        try {
+            Files.createDirectories(stagingDir);
+            file.transferTo(staged);
+            return new StagedImage(staged, UUID.randomUUID().toString(), ImageProcessor.outputExtension(staged));
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(staged);
+            slots.release();
+            if (e instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException("Failed to store file", e);
+        }
+    }
+
+    private void submit(StagedImage image, Completion completion, int attempt, Duration delay) {
+        executor.schedule(() -> run(image, completion, attempt), delay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void run(StagedImage image, Completion completion, int attempt) {
+        Path processed = imageStore.scratchFile(image.getToken(), image.getExtension());
+        try {
+            boolean wanted;
+            ImageStatus status;
+            try {
+                ImageProcessor.reencode(image.getPath(), processed, maxPixels);
+                status = ImageStatus.READY;
+                wanted = imageStore.put(processed, image.getExtension(),
+                        filename -> completion.complete(ImageStatus.READY, filename));
+            } catch (IllegalArgumentException e) {
+                log.info("Rejected image upload {}: {}", image.getToken(), e.getMessage());
+                status = ImageStatus.FAILED;
+                wanted = completion.complete(ImageStatus.FAILED, null);
+            }
+            outcome(wanted ? status.name().toLowerCase() : "superseded");
+            deleteQuietly(processed);
+            discard(image);
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(processed);
+            if (attempt < maxAttempts) {
+                log.warn("Image {} failed on attempt {}, retrying: {}", image.getToken(), attempt, e.getMessage());
+                submit(image, completion, attempt + 1, retryBackoff.multipliedBy(attempt));
+                return;
+            }
+            log.error("Giving up on image {} after {} attempts", image.getToken(), attempt, e);
+            try {
+                completion.complete(ImageStatus.FAILED, null);
+            } catch (RuntimeException completionFailure) {
+                log.warn("Could not mark image {} as failed: {}", image.getToken(), completionFailure.getMessage());
+            }
+            outcome("error");
+            discard(image);
+        }
+    }
+
+    private void outcome(String outcome) {
+        meterRegistry.counter("images.pipeline.processed", "outcome", outcome).increment();
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete {}: {}", path, e.getMessage());
+        }
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "image-pipeline-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,114 @@
+package com.gfgm.image;
+
+import javax.imageio.IIOException;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.Locale;
+
+// Decodes an upload and writes it out again from its pixels alone, which validates it and drops EXIF and any
+// other metadata (camera, GPS) on the way. PNG and GIF uploads are written as PNG, everything else as JPEG.
+// IllegalArgumentException means the upload itself is unusable; IOException is worth retrying.
+final class ImageProcessor {
+    static final String PNG = "png";
+    static final String JPEG = "jpg";
+    private static final float JPEG_QUALITY = 0.85f;
+
+    private ImageProcessor() {
+    }
+
+    // Reads only the header, so obviously wrong uploads are refused before they take a pipeline slot for long
+    static String outputExtension(Path source) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new IllegalArgumentException("Only JPEG, PNG, GIF or BMP images are accepted");
+            }
+            String format = readers.next().getFormatName().toLowerCase(Locale.ROOT);
+            return format.equals("png") || format.equals("gif") ? PNG : JPEG;
+        }
+    }
+
+    static void reencode(Path source, Path target, long maxPixels) throws IOException {
+        BufferedImage image = decode(source, maxPixels);
+        String extension = target.getFileName().toString().endsWith("." + PNG) ? PNG : JPEG;
+
+        // Written next to the target and moved into place, so a half-written file is never served
+        Path partial = target.resolveSibling(target.getFileName() + ".part");
+        Files.createDirectories(target.getParent());
+        try {
+            if (extension.equals(PNG)) {
+                if (!ImageIO.write(image, "png", partial.toFile())) {
+                    throw new IOException("No PNG writer available");
+                }
+            } else {
+                writeJpeg(toRgb(image), partial);
+            }
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+    }
+
+    private static BufferedImage decode(Path source, long maxPixels) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new IllegalArgumentException("Not a supported image");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                // Checked from the header before any pixels are allocated
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > maxPixels) {
+                    throw new IllegalArgumentException("Image has more than " + maxPixels + " pixels");
+                }
+                return reader.read(0);
+            } catch (IIOException e) {
+                throw new IllegalArgumentException("Image could not be decoded: " + e.getMessage(), e);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // JPEG has no alpha channel; transparent areas become white instead of black
+    private static BufferedImage toRgb(BufferedImage image) {
+        if (image.getType() == BufferedImage.TYPE_INT_RGB || image.getType() == BufferedImage.TYPE_3BYTE_BGR) {
+            return image;
+        }
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = rgb.createGraphics();
+        try {
+            graphics.drawImage(image, 0, 0, Color.WHITE, null);
+        } finally {
+            graphics.dispose();
+        }
+        return rgb;
+    }
+
+    private static void writeJpeg(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(JPEG_QUALITY);
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.gfgm.image;
+
+import com.gfgm.model.StoredImage;
+import com.gfgm.repository.StoredImageRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+// Content-addressed upload storage: a processed image is named after the SHA-256 of its bytes, so identical uploads
+// share one file. stored_images counts the recipe and user rows pointing at each file. acquire and release run in the
+// transaction that moves the pointer, and a file is deleted only after the commit that takes its count to zero.
+// Placing and deleting a file both hold the name's lock and re-check the count, so a file that is being acquired again
+// is never deleted underneath it (one application instance, like the in-memory indexes).
+// Names without a stored_images row predate the store; each had a single owner and goes when it is released.
+@Slf4j
+@Component
+public class ImageStore {
+    private static final int LOCK_STRIPES = 64;
+
+    private final Path uploadDir;
+    private final StoredImageRepository storedImageRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+    private final ExecutorService deleter = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "image-cleanup");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ImageStore(@Value("${file.upload-dir:uploads/}") String uploadDir,
+                      StoredImageRepository storedImageRepository,
+                      PlatformTransactionManager transactionManager) {
+        this.uploadDir = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.storedImageRepository = storedImageRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    // Where the pipeline writes a file before put; dot-prefixed names are never served
+    Path scratchFile(String token, String extension) {
+        return uploadDir.resolve("." + token + "." + extension);
+    }
+
+    // The stored file for a name taken from a URL, or null when the name could point outside the store
+    public Path resolve(String name) {
+        if (name == null || name.isEmpty() || name.startsWith(".")
+                || name.indexOf('/') >= 0 || name.indexOf('\\') >= 0 || name.indexOf('\0') >= 0) {
+            return null;
+        }
+        Path path = uploadDir.resolve(name).normalize();
+        return uploadDir.equals(path.getParent()) ? path : null;
+    }
+
+    // Moves a processed file into the store under its content name, then hands the name to attach in a transaction,
+    // all under the name's lock. When attach declines (or fails) the file goes again unless another row uses it.
+    public boolean put(Path file, String extension, Predicate<String> attach) throws IOException {
+        String name = sha256(file) + "." + extension;
+        ReentrantLock lock = lockFor(name);
+        lock.lock();
+        try {
+            Path target = uploadDir.resolve(name);
+            if (Files.exists(target)) {
+                Files.delete(file);
+            } else {
+                Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+            boolean attached;
+            try {
+                attached = Boolean.TRUE.equals(transactionTemplate.execute(status -> attach.test(name)));
+            } catch (RuntimeException e) {
+                deleteIfUnreferenced(name);
+                throw e;
+            }
+            if (!attached) {
+                deleteIfUnreferenced(name);
+            }
+            return attached;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Call in the transaction that makes a row point at name
+    public void acquire(String name) {
+        if (storedImageRepository.incrementRefCount(name) == 0) {
+            storedImageRepository.saveAndFlush(new StoredImage(name, 1));
+        }
+    }
+
+    // Call in the transaction that stops rows pointing at these names, one entry per row (nulls are skipped)
+    public void release(Collection<String> names) {
+        Map<String, Long> counts = names.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+        List<String> unreferenced = counts.entrySet().stream()
+                .filter(entry -> storedImageRepository.decrementRefCount(entry.getKey(), entry.getValue().intValue()) == 0
+                        || storedImageRepository.deleteUnreferenced(entry.getKey()) == 1)
+                .map(Map.Entry::getKey)
+                .toList();
+        if (unreferenced.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            deleteLater(unreferenced);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                deleteLater(unreferenced);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        deleter.shutdown();
+    }
+
+    private void deleteLater(List<String> names) {
+        deleter.execute(() -> {
+            for (String name : names) {
+                ReentrantLock lock = lockFor(name);
+                lock.lock();
+                try {
+                    deleteIfUnreferenced(name);
+                } catch (RuntimeException e) {
+                    log.warn("Could not delete upload {}: {}", name, e.getMessage());
+                } finally {
+                    lock.unlock();
+                }
+            }
+            log.debug("Released {} uploads", names.size());
+        });
+    }
+
+    // Caller holds the name's lock
+    private void deleteIfUnreferenced(String name) {
+        if (storedImageRepository.existsById(name)) {
+            return;
+        }
+        Path path = resolve(name);
+        try {
+            if (path != null) {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            log.warn("Could not delete upload {}: {}", name, e.getMessage());
+        }
+    }
+
+    private ReentrantLock lockFor(String name) {
+        return locks[Math.floorMod(name.hashCode(), LOCK_STRIPES)];
+    }
+
+    private static String sha256(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
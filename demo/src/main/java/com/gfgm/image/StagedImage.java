@@ -0,0 +1,24 @@
+package com.gfgm.image;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// An upload parked in the staging directory, holding one of the pipeline's slots until it is processed or discarded.
+// The owning row keeps token as its pending image until the processed file is in the ImageStore.
+@Getter
+@RequiredArgsConstructor
+public class StagedImage {
+    private final Path path;
+    private final String token;
+    private final String extension;
+    @Getter(lombok.AccessLevel.NONE)
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    // True for the first caller only, so the slot and the staged file are given back exactly once
+    boolean release() {
+        return released.compareAndSet(false, true);
+    }
+}
@@ -0,0 +1,149 @@
+package com.gfgm.importer;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+// RFC 4180 records (quoted fields may hold commas, doubled quotes and line breaks) keyed by the header row.
+// Each record becomes an object of text fields, so CSV and JSON uploads share one mapping; rows are
+// the line numbers records start on, the header being line 1.
+final class CsvRowSource implements RowSource {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private long line = 1;
+    private boolean finished;
+    private List<String> header;
+
+    CsvRowSource(Reader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public ImportRow next() throws IOException {
+        if (header == null) {
+            List<String> names = readRecord();
+            if (names == null) {
+                return null;
+            }
+            header = new ArrayList<>(names.size());
+            for (String name : names) {
+                header.add(name.replace("\uFEFF", "").trim());
+            }
+        }
+
+        List<String> values;
+        long start;
+        do {
+            start = line;
+            try {
+                values = readRecord();
+            } catch (IllegalStateException e) {
+                finished = true;
+                return ImportRow.unreadable(start, e.getMessage());
+            }
+            if (values == null) {
+                return null;
+            }
+        } while (values.size() == 1 && values.get(0).isBlank());
+
+        if (values.size() > header.size()) {
+            return ImportRow.unreadable(start, "Expected at most " + header.size() + " columns, found " + values.size());
+        }
+        ObjectNode fields = JsonNodeFactory.instance.objectNode();
+        for (int i = 0; i < values.size(); i++) {
+            if (!values.get(i).isBlank()) {
+                fields.put(header.get(i), values.get(i));
+            }
+        }
+        return ImportRow.of(start, fields);
+    }
+
+    // Null at the end of the input
+    private List<String> readRecord() throws IOException {
+        if (finished) {
+            return null;
+        }
+        int c = read();
+        if (c == -1) {
+            finished = true;
+            return null;
+        }
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IllegalStateException("Unterminated quoted field, import stopped");
+                }
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r' || c == -1) {
+                if (c == '\r' && peek() == '\n') {
+                    read();
+                }
+                if (c != -1) {
+                    line++;
+                } else {
+                    finished = true;
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        int read = reader.read(buffer, 0, BUFFER_SIZE);
+        if (read <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+}
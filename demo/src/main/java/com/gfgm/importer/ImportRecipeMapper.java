@@ -0,0 +1,180 @@
+package com.gfgm.importer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.gfgm.model.Ingredient;
+import com.gfgm.model.Recipe;
+import com.gfgm.model.RecipeCategory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Turns one imported record into a Recipe, throwing IllegalArgumentException with a message for the
+// import report when it cannot be used. Accepted fields:
+//   title (or name), description, instructions (or steps, as a list or text), prepTime, cookTime,
+//   servings, category, published, calories, protein, carbs, fat, fiber, sugar, ingredients.
+// Ingredients are a list of {name, amount, unit} objects or of strings; in CSV they are one cell of
+// ';'-separated strings. A string is either a bare name or "name:amount:unit".
+final class ImportRecipeMapper {
+    static final double DEFAULT_AMOUNT = 1.0;
+    static final String DEFAULT_UNIT = "unit";
+    private static final int MAX_TEXT_LENGTH = 255;
+
+    private ImportRecipeMapper() {
+    }
+
+    static Recipe toRecipe(JsonNode fields, boolean published) {
+        if (fields == null || !fields.isObject()) {
+            throw new IllegalArgumentException("Each record must be an object");
+        }
+
+        Recipe recipe = new Recipe();
+        String title = text(fields, "title", "name");
+        if (title == null) {
+            throw new IllegalArgumentException("Title is required");
+        }
+        recipe.setTitle(checkLength("Title", title));
+        recipe.setDescription(text(fields, "description"));
+        recipe.setInstructions(instructions(fields));
+        recipe.setPrepTime(positiveInteger(fields, "prepTime"));
+        recipe.setCookTime(positiveInteger(fields, "cookTime"));
+        recipe.setServings(positiveInteger(fields, "servings"));
+        recipe.setCategory(category(text(fields, "category")));
+        String publishedText = text(fields, "published");
+        recipe.setPublished(publishedText != null ? Boolean.parseBoolean(publishedText) : published);
+
+        recipe.setCalories(number(fields, "calories"));
+        recipe.setProtein(number(fields, "protein"));
+        recipe.setCarbs(number(fields, "carbs"));
+        recipe.setFat(number(fields, "fat"));
+        recipe.setFiber(number(fields, "fiber"));
+        recipe.setSugar(number(fields, "sugar"));
+
+        JsonNode ingredients = fields.get("ingredients");
+        if (ingredients != null && ingredients.isArray()) {
+            for (JsonNode entry : ingredients) {
+                recipe.getIngredients().add(entry.isObject() ? ingredient(entry, recipe) : ingredient(entry.asText(), recipe));
+            }
+        } else if (ingredients != null && ingredients.isTextual()) {
+            for (String entry : ingredients.asText().split(";")) {
+                if (!entry.isBlank()) {
+                    recipe.getIngredients().add(ingredient(entry, recipe));
+                }
+            }
+        }
+        if (recipe.getIngredients().isEmpty()) {
+            throw new IllegalArgumentException("At least one ingredient is required");
+        }
+        return recipe;
+    }
+
+    private static Ingredient ingredient(JsonNode entry, Recipe recipe) {
+        Double amount = number(entry, "amount");
+        String unit = text(entry, "unit");
+        return ingredient(text(entry, "name"), amount != null ? amount : DEFAULT_AMOUNT,
+                unit != null ? unit : DEFAULT_UNIT, recipe);
+    }
+
+    private static Ingredient ingredient(String entry, Recipe recipe) {
+        String[] parts = entry.split(":");
+        if (parts.length == 3) {
+            return ingredient(parts[0].trim(), parseNumber("amount", parts[1].trim()), parts[2].trim(), recipe);
+        }
+        return ingredient(entry.trim(), DEFAULT_AMOUNT, DEFAULT_UNIT, recipe);
+    }
+
+    private static Ingredient ingredient(String name, Double amount, String unit, Recipe recipe) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Ingredient name is required");
+        }
+        if (amount == null || !(amount > 0)) {
+            throw new IllegalArgumentException("Amount of " + name + " must be positive");
+        }
+        if (unit.isBlank()) {
+            throw new IllegalArgumentException("Unit of " + name + " is required");
+        }
+        Ingredient ingredient = new Ingredient();
+        ingredient.setName(checkLength("Ingredient name", name));
+        ingredient.setAmount(amount);
+        ingredient.setUnit(checkLength("Unit", unit));
+        ingredient.setPosition(recipe.getIngredients().size());
+        ingredient.setRecipe(recipe);
+        return ingredient;
+    }
+
+    private static String instructions(JsonNode fields) {
+        String instructions = text(fields, "instructions");
+        if (instructions != null) {
+            return instructions;
+        }
+        JsonNode steps = fields.get("steps");
+        if (steps != null && steps.isArray()) {
+            List<String> lines = new ArrayList<>(steps.size());
+            steps.forEach(step -> lines.add(step.asText().trim()));
+            return String.join("\n", lines);
+        }
+        return text(fields, "steps");
+    }
+
+    private static RecipeCategory category(String category) {
+        if (category == null) {
+            return null;
+        }
+        try {
+            return RecipeCategory.valueOf(category.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown category " + category);
+        }
+    }
+
+    private static Integer positiveInteger(JsonNode fields, String field) {
+        Double value = number(fields, field);
+        if (value == null) {
+            return null;
+        }
+        if (value <= 0 || value != Math.rint(value) || value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(field + " must be a positive whole number");
+        }
+        return value.intValue();
+    }
+
+    private static Double number(JsonNode fields, String field) {
+        JsonNode value = fields.get(field);
+        if (value == null || value.isNull()) {
+            return null;
+        }
+        if (value.isNumber()) {
+            return value.doubleValue();
+        }
+        return value.asText().isBlank() ? null : parseNumber(field, value.asText().trim());
+    }
+
+    private static double parseNumber(String field, String text) {
+        try {
+            double value = Double.parseDouble(text);
+            if (Double.isFinite(value)) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException(field + " is not a number: " + text);
+    }
+
+    // The first of the given fields holding non-blank text
+    private static String text(JsonNode fields, String... names) {
+        for (String name : names) {
+            JsonNode value = fields.get(name);
+            if (value != null && !value.isNull() && !value.isContainerNode() && !value.asText().isBlank()) {
+                return value.asText().trim();
+            }
+        }
+        return null;
+    }
+
+    private static String checkLength(String label, String value) {
+        if (value.length() > MAX_TEXT_LENGTH) {
+            throw new IllegalArgumentException(label + " is longer than " + MAX_TEXT_LENGTH + " characters");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,22 @@
+package com.gfgm.importer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// One record of an upload: its fields as JSON (CSV cells become text nodes), or why it could not be read
+@Getter
+@RequiredArgsConstructor
+final class ImportRow {
+    private final long row;
+    private final JsonNode fields;
+    private final String error;
+
+    static ImportRow of(long row, JsonNode fields) {
+        return new ImportRow(row, fields, null);
+    }
+
+    static ImportRow unreadable(long row, String error) {
+        return new ImportRow(row, null, error);
+    }
+}
@@ -0,0 +1,93 @@
+package com.gfgm.importer;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+// NDJSON is read a line at a time, so a malformed line only costs that row (rows are line numbers).
+// An upload starting with '[' is streamed element by element instead (rows are element positions);
+// there a syntax error ends the upload, since nothing after it can be located reliably.
+final class JsonRowSource implements RowSource {
+    private final ObjectMapper objectMapper;
+    private final BufferedReader reader;
+    private JsonParser arrayParser;
+    private boolean started;
+    private boolean finished;
+    private long row;
+
+    JsonRowSource(ObjectMapper objectMapper, BufferedReader reader) {
+        this.objectMapper = objectMapper;
+        this.reader = reader;
+    }
+
+    @Override
+    public ImportRow next() throws IOException {
+        if (!started) {
+            started = true;
+            if (startsWithArray()) {
+                row = 0;
+                arrayParser = objectMapper.getFactory().createParser(reader);
+                arrayParser.nextToken();
+            }
+        }
+        if (finished) {
+            return null;
+        }
+        return arrayParser != null ? nextElement() : nextLine();
+    }
+
+    private ImportRow nextLine() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                finished = true;
+                return null;
+            }
+            row++;
+        } while (line.isBlank());
+
+        try {
+            return ImportRow.of(row, objectMapper.readTree(line));
+        } catch (JsonProcessingException e) {
+            return ImportRow.unreadable(row, "Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private ImportRow nextElement() throws IOException {
+        try {
+            JsonToken token = arrayParser.nextToken();
+            if (token == null || token == JsonToken.END_ARRAY) {
+                finished = true;
+                return null;
+            }
+            row++;
+            return ImportRow.of(row, arrayParser.readValueAsTree());
+        } catch (JsonProcessingException e) {
+            finished = true;
+            return ImportRow.unreadable(row + 1, "Malformed JSON, import stopped: " + e.getOriginalMessage());
+        }
+    }
+
+    // Peeks past whitespace and a byte order mark without consuming the first significant character
+    private boolean startsWithArray() throws IOException {
+        while (true) {
+            reader.mark(1);
+            int c = reader.read();
+            if (c == -1) {
+                return false;
+            }
+            if (c == '\n') {
+                row++;
+            }
+            if (!Character.isWhitespace(c) && c != '\uFEFF') {
+                reader.reset();
+                return c == '[';
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.gfgm.importer;
+
+import org.springframework.http.MediaType;
+
+public enum RecipeImportFormat {
+    // One JSON object per line, or a single JSON array of objects (like the sidecar's recipes.json)
+    JSON,
+    // A header row naming the columns, then one recipe per record
+    CSV;
+
+    public static RecipeImportFormat fromContentType(String contentType) {
+        if (contentType != null) {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            if ("csv".equalsIgnoreCase(mediaType.getSubtype())) {
+                return CSV;
+            }
+            if (mediaType.getSubtype().toLowerCase().endsWith("json")) {
+                return JSON;
+            }
+        }
+        throw new IllegalArgumentException("Imports accept application/x-ndjson, application/json or text/csv");
+    }
+}
@@ -0,0 +1,217 @@
+package com.gfgm.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gfgm.dto.RecipeImportEvent;
+import com.gfgm.index.RecipeIndexer;
+import com.gfgm.ingredient.IngredientNormalizer;
+import com.gfgm.model.Ingredient;
+import com.gfgm.model.Recipe;
+import com.gfgm.model.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Streams an upload into the catalogue: records are read one at a time, mapped, and committed in chunks of
+// chunkSize recipes per transaction, their rows going out as JDBC batches. A chunk the database refuses is
+// retried one recipe per transaction, so only the offending rows fail. Committed chunks are indexed in place
+// rather than reloaded. Each rejected row, each committed chunk and the end are reported to the listener.
+@Slf4j
+@Service
+public class RecipeImportService {
+    private static final int MAX_CHUNK_SIZE = 5000;
+    private static final int MAX_MESSAGE_LENGTH = 300;
+
+    private final ObjectMapper objectMapper;
+    private final RecipeIndexer recipeIndexer;
+    private final IngredientNormalizer ingredientNormalizer;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int defaultChunkSize;
+    private final int maxReportedErrors;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public RecipeImportService(ObjectMapper objectMapper,
+                               RecipeIndexer recipeIndexer,
+                               IngredientNormalizer ingredientNormalizer,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${recipes.import.chunk-size:500}") int defaultChunkSize,
+                               @Value("${recipes.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.objectMapper = objectMapper;
+        this.recipeIndexer = recipeIndexer;
+        this.ingredientNormalizer = ingredientNormalizer;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.defaultChunkSize = defaultChunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    public RecipeImportEvent importRecipes(InputStream body, RecipeImportFormat format, Integer chunkSize,
+                                           boolean published, Long ownerId, Consumer<RecipeImportEvent> listener)
+            throws IOException {
+        int size = chunkSize != null ? chunkSize : defaultChunkSize;
+        if (size < 1 || size > MAX_CHUNK_SIZE) {
+            throw new IllegalArgumentException("chunkSize must be between 1 and " + MAX_CHUNK_SIZE);
+        }
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), 1 << 16);
+        RowSource source = format == RecipeImportFormat.CSV ? new CsvRowSource(reader) : new JsonRowSource(objectMapper, reader);
+        Run run = new Run(ownerId, listener);
+
+        ImportRow row;
+        while ((row = source.next()) != null) {
+            run.rows++;
+            if (row.getError() != null) {
+                run.fail(row.getRow(), row.getError());
+                continue;
+            }
+            try {
+                run.chunk.add(ImportRecipeMapper.toRecipe(row.getFields(), published));
+                run.chunkRows.add(row.getRow());
+            } catch (IllegalArgumentException e) {
+                run.fail(row.getRow(), e.getMessage());
+            }
+            if (run.chunk.size() == size) {
+                run.commitChunk();
+            }
+        }
+        run.commitChunk();
+
+        RecipeImportEvent done = run.summary(RecipeImportEvent.DONE);
+        if (run.failed > run.reportedErrors) {
+            done.setMessage((run.failed - run.reportedErrors) + " further errors were not reported");
+        }
+        listener.accept(done);
+        log.info("Imported {} of {} recipes in {} ms ({} failed)", run.imported, run.rows, done.getElapsedMs(), run.failed);
+        return done;
+    }
+
+    private final class Run {
+        private final Long ownerId;
+        private final Consumer<RecipeImportEvent> listener;
+        private final long start = System.nanoTime();
+        private final List<Recipe> chunk = new ArrayList<>();
+        private final List<Long> chunkRows = new ArrayList<>();
+        private long rows;
+        private long imported;
+        private long failed;
+        private long reportedErrors;
+
+        Run(Long ownerId, Consumer<RecipeImportEvent> listener) {
+            this.ownerId = ownerId;
+            this.listener = listener;
+        }
+
+        void commitChunk() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            for (Recipe recipe : chunk) {
+                ingredientNormalizer.assign(recipe.getIngredients());
+            }
+            // Only a rolled back persist is retried row by row; once a chunk has committed, a failure in the
+            // bookkeeping after it must not insert its recipes a second time
+            RuntimeException rejected = null;
+            try {
+                persist(chunk);
+            } catch (RuntimeException e) {
+                rejected = e;
+            }
+            if (rejected == null) {
+                succeeded(chunk);
+            } else {
+                log.debug("Import chunk rejected, retrying its {} recipes one by one", chunk.size(), rejected);
+                for (int i = 0; i < chunk.size(); i++) {
+                    Recipe recipe = chunk.get(i);
+                    clearIds(recipe);
+                    try {
+                        persist(List.of(recipe));
+                    } catch (RuntimeException rowFailure) {
+                        clearIds(recipe);
+                        fail(chunkRows.get(i), databaseMessage(rowFailure));
+                        continue;
+                    }
+                    succeeded(List.of(recipe));
+                }
+            }
+            chunk.clear();
+            chunkRows.clear();
+            listener.accept(summary(RecipeImportEvent.PROGRESS));
+        }
+
+        // One transaction; the persistence context is emptied afterwards so memory stays flat across chunks
+        private void persist(List<Recipe> recipes) {
+            transactionTemplate.executeWithoutResult(status -> {
+                User owner = entityManager.getReference(User.class, ownerId);
+                for (Recipe recipe : recipes) {
+                    recipe.setUser(owner);
+                    entityManager.persist(recipe);
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+
+        private void succeeded(List<Recipe> recipes) {
+            imported += recipes.size();
+            recipeIndexer.indexAll(recipes);
+            meterRegistry.counter("recipes.import.rows", "outcome", "imported").increment(recipes.size());
+        }
+
+        void fail(long row, String message) {
+            failed++;
+            meterRegistry.counter("recipes.import.rows", "outcome", "failed").increment();
+            if (reportedErrors < maxReportedErrors) {
+                reportedErrors++;
+                listener.accept(RecipeImportEvent.builder()
+                        .event(RecipeImportEvent.ERROR)
+                        .row(row)
+                        .message(message)
+                        .build());
+            }
+        }
+
+        RecipeImportEvent summary(String event) {
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            return RecipeImportEvent.builder()
+                    .event(event)
+                    .rows(rows)
+                    .imported(imported)
+                    .failed(failed)
+                    .elapsedMs(elapsedMs)
+                    .recipesPerSecond(elapsedMs > 0 ? imported * 1000 / elapsedMs : imported)
+                    .build();
+        }
+    }
+
+    // A rolled back persist leaves generated ids behind; without them the recipe can be persisted again
+    private static void clearIds(Recipe recipe) {
+        recipe.setId(null);
+        for (Ingredient ingredient : recipe.getIngredients()) {
+            ingredient.setId(null);
+        }
+    }
+
+    private static String databaseMessage(RuntimeException e) {
+        Throwable cause = NestedExceptionUtils.getMostSpecificCause(e);
+        String message = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+        return message.length() > MAX_MESSAGE_LENGTH ? message.substring(0, MAX_MESSAGE_LENGTH) : message;
+    }
+}
@@ -0,0 +1,9 @@
+package com.gfgm.importer;
+
+import java.io.IOException;
+
+// Pulls records off the upload one at a time, so an import never holds more than a chunk in memory
+interface RowSource {
+    // Null once the upload is exhausted
+    ImportRow next() throws IOException;
+}
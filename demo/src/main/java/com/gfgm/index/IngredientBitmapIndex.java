@@ -0,0 +1,190 @@
+package com.gfgm.index;
+
+import com.gfgm.model.Ingredient;
+import com.gfgm.model.Recipe;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Compressed recipe-id bitmaps per ingredient term, for include / exclude / any-of lookups over published recipes.
+// Every ingredient is indexed under its full normalized name and under each of its words,
+// so "chicken" matches "chicken breast" while "chicken breast" only matches that ingredient.
+@Component
+public class IngredientBitmapIndex implements RecipeIndex {
+    private final Map<String, RoaringBitmap> recipesByTerm = new HashMap<>();
+    private final Map<Integer, String[]> termsByRecipe = new HashMap<>();
+    private final RoaringBitmap publishedRecipes = new RoaringBitmap();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void index(Recipe recipe) {
+        if (!recipe.isPublished()) {
+            remove(recipe.getId());
+            return;
+        }
+
+        Set<String> terms = new LinkedHashSet<>();
+        for (Ingredient ingredient : recipe.getIngredients()) {
+            String name = normalize(ingredient.getName());
+            if (name.isEmpty()) {
+                continue;
+            }
+            terms.add(name);
+            for (String word : name.split(" ")) {
+                terms.add(word);
+            }
+        }
+
+        int recipeId = Math.toIntExact(recipe.getId());
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(recipeId);
+            for (String term : terms) {
+                recipesByTerm.computeIfAbsent(term, t -> new RoaringBitmap()).add(recipeId);
+            }
+            termsByRecipe.put(recipeId, terms.toArray(new String[0]));
+            publishedRecipes.add(recipeId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long recipeId) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(Math.toIntExact(recipeId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            recipesByTerm.clear();
+            termsByRecipe.clear();
+            publishedRecipes.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Recipes containing every include, at least one anyOf (when given) and no exclude; newest (highest id) first
+    public Result find(Collection<String> include, Collection<String> exclude, Collection<String> anyOf,
+                       long offset, int limit) {
+        RoaringBitmap matches;
+        lock.readLock().lock();
+        try {
+            matches = publishedRecipes.clone();
+            for (String term : normalizeAll(include)) {
+                matches.and(bitmapFor(term));
+            }
+            Set<String> anyTerms = normalizeAll(anyOf);
+            if (!anyTerms.isEmpty()) {
+                RoaringBitmap any = new RoaringBitmap();
+                for (String term : anyTerms) {
+                    any.or(bitmapFor(term));
+                }
+                matches.and(any);
+            }
+            for (String term : normalizeAll(exclude)) {
+                matches.andNot(bitmapFor(term));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Long> ids = new ArrayList<>(limit);
+        IntIterator iterator = matches.getReverseIntIterator();
+        for (long skipped = 0; skipped < offset && iterator.hasNext(); skipped++) {
+            iterator.next();
+        }
+        while (ids.size() < limit && iterator.hasNext()) {
+            ids.add((long) iterator.next());
+        }
+        return new Result(ids, matches.getLongCardinality());
+    }
+
+    private RoaringBitmap bitmapFor(String term) {
+        RoaringBitmap bitmap = recipesByTerm.get(term);
+        return bitmap != null ? bitmap : new RoaringBitmap();
+    }
+
+    private void removeUnlocked(int recipeId) {
+        String[] previous = termsByRecipe.remove(recipeId);
+        if (previous == null) {
+            return;
+        }
+        for (String term : previous) {
+            RoaringBitmap bitmap = recipesByTerm.get(term);
+            if (bitmap != null) {
+                bitmap.remove(recipeId);
+                if (bitmap.isEmpty()) {
+                    recipesByTerm.remove(term);
+                }
+            }
+        }
+        publishedRecipes.remove(recipeId);
+    }
+
+    private static Set<String> normalizeAll(Collection<String> names) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (names != null) {
+            for (String name : names) {
+                String term = normalize(name);
+                if (!term.isEmpty()) {
+                    terms.add(term);
+                }
+            }
+        }
+        return terms;
+    }
+
+    // Lowercase, punctuation to spaces, simple plurals singularized word by word
+    public static String normalize(String name) {
+        if (name == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(name.length());
+        for (String word : name.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}%]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            if (word.length() > 4 && word.endsWith("ies")) {
+                word = word.substring(0, word.length() - 3) + "y";
+            } else if (word.length() > 4 && word.endsWith("oes")) {
+                word = word.substring(0, word.length() - 2);
+            } else if (word.length() > 3 && word.endsWith("s") && !word.endsWith("ss")) {
+                word = word.substring(0, word.length() - 1);
+            }
+            if (normalized.length() > 0) {
+                normalized.append(' ');
+            }
+            normalized.append(word);
+        }
+        return normalized.toString();
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Result {
+        private final List<Long> recipeIds;
+        private final long totalMatches;
+    }
+}
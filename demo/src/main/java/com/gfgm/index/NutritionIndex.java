@@ -0,0 +1,339 @@
+package com.gfgm.index;
+
+import com.gfgm.dto.NutritionFilter;
+import com.gfgm.model.Recipe;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Column store of the nutrition fields of published recipes: one primitive array per macro, missing values as NaN.
+// Filters are evaluated a column at a time into a match mask (simple loops the JIT can vectorize),
+// then the requested page is selected with a bounded primitive heap, without boxing.
+@Component
+public class NutritionIndex implements RecipeIndex {
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final byte NO_CATEGORY = -1;
+
+    // Per thread scratch space so a scan does not allocate in proportion to the catalogue
+    private static final ThreadLocal<byte[]> MATCH_MASK = ThreadLocal.withInitial(() -> new byte[INITIAL_CAPACITY]);
+
+    public enum Column {
+        CALORIES("calories"),
+        PROTEIN("protein"),
+        CARBS("carbs"),
+        FAT("fat"),
+        FIBER("fiber"),
+        SUGAR("sugar"),
+        PROTEIN_PER_100_KCAL("proteinPer100Kcal");
+
+        private final String property;
+
+        Column(String property) {
+            this.property = property;
+        }
+
+        public static Column fromProperty(String property) {
+            Column column = find(property);
+            if (column == null) {
+                throw new IllegalArgumentException("Cannot sort by " + property);
+            }
+            return column;
+        }
+
+        // Whether the property is a macro or ratio column, which only this index can sort by for every recipe
+        public static boolean isProperty(String property) {
+            return find(property) != null;
+        }
+
+        private static Column find(String property) {
+            for (Column column : values()) {
+                if (column.property.equalsIgnoreCase(property)) {
+                    return column;
+                }
+            }
+            return null;
+        }
+    }
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private final double[][] columns = new double[Column.values().length][INITIAL_CAPACITY];
+    private byte[] categories = new byte[INITIAL_CAPACITY];
+    private int size;
+    private final Map<Long, Integer> slots = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void index(Recipe recipe) {
+        if (!recipe.isPublished()) {
+            remove(recipe.getId());
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            Integer slot = slots.get(recipe.getId());
+            if (slot == null) {
+                ensureCapacity(size + 1);
+                slot = size++;
+                slots.put(recipe.getId(), slot);
+            }
+            ids[slot] = recipe.getId();
+            columns[Column.CALORIES.ordinal()][slot] = valueOf(recipe.getCalories());
+            columns[Column.PROTEIN.ordinal()][slot] = valueOf(recipe.getProtein());
+            columns[Column.CARBS.ordinal()][slot] = valueOf(recipe.getCarbs());
+            columns[Column.FAT.ordinal()][slot] = valueOf(recipe.getFat());
+            columns[Column.FIBER.ordinal()][slot] = valueOf(recipe.getFiber());
+            columns[Column.SUGAR.ordinal()][slot] = valueOf(recipe.getSugar());
+            columns[Column.PROTEIN_PER_100_KCAL.ordinal()][slot] = proteinPer100Kcal(recipe.getProtein(), recipe.getCalories());
+            categories[slot] = recipe.getCategory() != null ? (byte) recipe.getCategory().ordinal() : NO_CATEGORY;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long recipeId) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slots.remove(recipeId);
+            if (slot == null) {
+                return;
+            }
+            // Move the last row into the hole to keep the columns dense
+            int last = --size;
+            if (slot != last) {
+                ids[slot] = ids[last];
+                for (double[] column : columns) {
+                    column[slot] = column[last];
+                }
+                categories[slot] = categories[last];
+                slots.put(ids[slot], slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            slots.clear();
+            size = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // A null sortBy orders newest (highest id) first
+    public Result find(NutritionFilter filter, Column sortBy, boolean descending, long offset, int limit) {
+        double[] lower = new double[columns.length];
+        double[] upper = new double[columns.length];
+        Arrays.fill(lower, Double.NEGATIVE_INFINITY);
+        Arrays.fill(upper, Double.POSITIVE_INFINITY);
+        setBounds(lower, upper, Column.CALORIES, filter.getMinCalories(), filter.getMaxCalories());
+        setBounds(lower, upper, Column.PROTEIN, filter.getMinProtein(), filter.getMaxProtein());
+        setBounds(lower, upper, Column.CARBS, filter.getMinCarbs(), filter.getMaxCarbs());
+        setBounds(lower, upper, Column.FAT, filter.getMinFat(), filter.getMaxFat());
+        setBounds(lower, upper, Column.FIBER, filter.getMinFiber(), filter.getMaxFiber());
+        setBounds(lower, upper, Column.SUGAR, filter.getMinSugar(), filter.getMaxSugar());
+        setBounds(lower, upper, Column.PROTEIN_PER_100_KCAL, filter.getMinProteinPer100Kcal(), filter.getMaxProteinPer100Kcal());
+        byte category = filter.getCategory() != null ? (byte) filter.getCategory().ordinal() : NO_CATEGORY;
+
+        lock.readLock().lock();
+        try {
+            int rows = size;
+            byte[] mask = matchMask(rows);
+            Arrays.fill(mask, 0, rows, (byte) 1);
+
+            for (int c = 0; c < columns.length; c++) {
+                if (lower[c] == Double.NEGATIVE_INFINITY && upper[c] == Double.POSITIVE_INFINITY) {
+                    continue;
+                }
+                double[] values = columns[c];
+                double min = lower[c];
+                double max = upper[c];
+                // NaN (missing value) fails both comparisons, so unknown macros never match a bound
+                for (int i = 0; i < rows; i++) {
+                    double value = values[i];
+                    mask[i] &= (byte) (value >= min & value <= max ? 1 : 0);
+                }
+            }
+            if (category != NO_CATEGORY) {
+                for (int i = 0; i < rows; i++) {
+                    mask[i] &= (byte) (categories[i] == category ? 1 : 0);
+                }
+            }
+
+            int matches = 0;
+            for (int i = 0; i < rows; i++) {
+                matches += mask[i];
+            }
+            if (offset >= matches) {
+                return new Result(List.of(), matches);
+            }
+
+            TopK top = new TopK((int) Math.min(offset + limit, matches));
+            double[] sortValues = sortBy != null ? columns[sortBy.ordinal()] : null;
+            for (int i = 0; i < rows; i++) {
+                if (mask[i] == 0) {
+                    continue;
+                }
+                double key;
+                if (sortValues == null) {
+                    key = descending ? ids[i] : -ids[i];
+                } else {
+                    double value = sortValues[i];
+                    // Recipes without the sorted value go last in either direction
+                    key = Double.isNaN(value) ? Double.NEGATIVE_INFINITY : (descending ? value : -value);
+                }
+                top.offer(key, ids[i]);
+            }
+
+            long[] ranked = top.drainBestFirst();
+            List<Long> page = new ArrayList<>(limit);
+            for (long i = offset; i < ranked.length && page.size() < limit; i++) {
+                page.add(ranked[(int) i]);
+            }
+            return new Result(page, matches);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, ids.length * 2);
+        ids = Arrays.copyOf(ids, newCapacity);
+        for (int c = 0; c < columns.length; c++) {
+            columns[c] = Arrays.copyOf(columns[c], newCapacity);
+        }
+        categories = Arrays.copyOf(categories, newCapacity);
+    }
+
+    private static byte[] matchMask(int rows) {
+        byte[] mask = MATCH_MASK.get();
+        if (mask.length < rows) {
+            mask = new byte[Math.max(rows, mask.length * 2)];
+            MATCH_MASK.set(mask);
+        }
+        return mask;
+    }
+
+    private static void setBounds(double[] lower, double[] upper, Column column, Double min, Double max) {
+        if (min != null) {
+            lower[column.ordinal()] = min;
+        }
+        if (max != null) {
+            upper[column.ordinal()] = max;
+        }
+    }
+
+    private static double valueOf(Double value) {
+        return value != null ? value : Double.NaN;
+    }
+
+    private static double proteinPer100Kcal(Double protein, Double calories) {
+        if (protein == null || calories == null || calories <= 0) {
+            return Double.NaN;
+        }
+        return protein * 100.0 / calories;
+    }
+
+    // Keeps the k best (key, id) pairs in a min-heap on primitive arrays; ties go to the higher id
+    private static final class TopK {
+        private final double[] keys;
+        private final long[] ids;
+        private int size;
+
+        TopK(int capacity) {
+            keys = new double[capacity];
+            ids = new long[capacity];
+        }
+
+        void offer(double key, long id) {
+            if (size < keys.length) {
+                keys[size] = key;
+                ids[size] = id;
+                siftUp(size++);
+            } else if (size > 0 && isWorse(keys[0], ids[0], key, id)) {
+                keys[0] = key;
+                ids[0] = id;
+                siftDown(0);
+            }
+        }
+
+        long[] drainBestFirst() {
+            long[] ranked = new long[size];
+            for (int i = size - 1; i >= 0; i--) {
+                ranked[i] = ids[0];
+                size--;
+                keys[0] = keys[size];
+                ids[0] = ids[size];
+                siftDown(0);
+            }
+            return ranked;
+        }
+
+        private static boolean isWorse(double keyA, long idA, double keyB, long idB) {
+            return keyA < keyB || (keyA == keyB && idA < idB);
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!isWorse(keys[i], ids[i], keys[parent], ids[parent])) {
+                    break;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int left = 2 * i + 1;
+                if (left >= size) {
+                    break;
+                }
+                int worst = left;
+                int right = left + 1;
+                if (right < size && isWorse(keys[right], ids[right], keys[left], ids[left])) {
+                    worst = right;
+                }
+                if (!isWorse(keys[worst], ids[worst], keys[i], ids[i])) {
+                    break;
+                }
+                swap(i, worst);
+                i = worst;
+            }
+        }
+
+        private void swap(int a, int b) {
+            double key = keys[a];
+            keys[a] = keys[b];
+            keys[b] = key;
+            long id = ids[a];
+            ids[a] = ids[b];
+            ids[b] = id;
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Result {
+        private final List<Long> recipeIds;
+        private final long totalMatches;
+    }
+}
@@ -0,0 +1,14 @@
+package com.gfgm.index;
+
+import com.gfgm.model.Recipe;
+
+// In-memory structure derived from the recipes table and kept current by RecipeIndexer
+public interface RecipeIndex {
+
+    // Called with the recipe and its ingredients loaded; replaces any previous entry for the same id
+    void index(Recipe recipe);
+
+    void remove(Long recipeId);
+
+    void clear();
+}
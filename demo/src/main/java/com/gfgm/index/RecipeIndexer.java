@@ -0,0 +1,117 @@
+package com.gfgm.index;
+
+import com.gfgm.event.RecipeChangedEvent;
+import com.gfgm.event.RecipesChangedEvent;
+import com.gfgm.model.Recipe;
+import com.gfgm.repository.RecipeRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RecipeIndexer {
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    private final RecipeRepository recipeRepository;
+    private final List<RecipeIndex> indexes;
+    private final PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuildAll();
+    }
+
+    // Runs after the writing transaction commits, so a rolled back write never reaches the indexes
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        if (event.isDeleted()) {
+            indexes.forEach(index -> index.remove(event.getRecipeId()));
+            return;
+        }
+
+        // A new transaction gets a fresh persistence context instead of the writer's stale one
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        template.setReadOnly(true);
+        template.executeWithoutResult(status -> recipeRepository.findWithIngredientsById(event.getRecipeId())
+                .ifPresentOrElse(
+                        recipe -> indexes.forEach(index -> index.index(recipe)),
+                        () -> indexes.forEach(index -> index.remove(event.getRecipeId()))));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipesChanged(RecipesChangedEvent event) {
+        if (event.isDeleted()) {
+            event.getRecipeIds().forEach(id -> indexes.forEach(index -> index.remove(id)));
+            return;
+        }
+
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        template.setReadOnly(true);
+        template.executeWithoutResult(status -> {
+            Set<Long> missing = new HashSet<>(event.getRecipeIds());
+            for (Recipe recipe : recipeRepository.findAllWithIngredientsByIdIn(event.getRecipeIds())) {
+                indexes.forEach(index -> index.index(recipe));
+                missing.remove(recipe.getId());
+            }
+            missing.forEach(id -> indexes.forEach(index -> index.remove(id)));
+        });
+    }
+
+    // For bulk writers that still hold the recipes they just committed, ingredients included
+    public void indexAll(Collection<Recipe> recipes) {
+        for (Recipe recipe : recipes) {
+            indexes.forEach(index -> index.index(recipe));
+        }
+    }
+
+    public int rebuildAll() {
+        long start = System.currentTimeMillis();
+        indexes.forEach(RecipeIndex::clear);
+
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        Integer total = template.execute(status -> {
+            int count = 0;
+            long lastId = 0L;
+            List<Long> ids;
+            do {
+                ids = recipeRepository.findIdsAfter(lastId, PageRequest.ofSize(REBUILD_BATCH_SIZE));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                for (Recipe recipe : recipeRepository.findAllWithIngredientsByIdIn(ids)) {
+                    indexes.forEach(index -> index.index(recipe));
+                }
+                count += ids.size();
+                lastId = ids.get(ids.size() - 1);
+                entityManager.clear();
+            } while (ids.size() == REBUILD_BATCH_SIZE);
+            return count;
+        });
+
+        log.info("Rebuilt {} recipe indexes from {} recipes in {} ms",
+                indexes.size(), total, System.currentTimeMillis() - start);
+        return total == null ? 0 : total;
+    }
+}
@@ -0,0 +1,368 @@
+package com.gfgm.index;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gfgm.model.Ingredient;
+import com.gfgm.model.Recipe;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Recipes most similar to an ingredient list, by Jaccard similarity of their ingredient terms (full normalized names
+// and their words, as in IngredientBitmapIndex). Each recipe gets a 64-value MinHash signature cut into 32 bands of two;
+// recipes sharing a band bucket with the query are the candidates. Two-row bands keep recipes at a Jaccard of 0.2 in
+// nine of ten candidate sets, which short pantry lists need against long recipes. Candidates are ranked by the number
+// of bands they share with the query, and only the best few hundred are scored exactly, so the work per lookup stays
+// bounded however common the ingredients are.
+// Besides published recipes, the model's recipes.json is indexed when present, so there is an answer on an empty
+// catalogue too; those entries have no recipe id and survive rebuilds.
+@Slf4j
+@Component
+public class SimilarRecipeIndex implements RecipeIndex {
+    private static final int BANDS = 32;
+    private static final int ROWS = 2;
+    private static final int MAX_CANDIDATES = 5_000;
+    private static final int MIN_SCORED = 256;
+    private static final long[] MULTIPLIERS = new long[BANDS * ROWS];
+    private static final long[] ADDENDS = new long[BANDS * ROWS];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5EEDL);
+        for (int i = 0; i < MULTIPLIERS.length; i++) {
+            MULTIPLIERS[i] = random.nextLong() | 1;
+            ADDENDS[i] = random.nextLong();
+        }
+    }
+
+    // recipeId is null for entries from recipes.json
+    public record Match(Long recipeId, String name, List<String> ingredients, List<String> steps, double similarity) {
+    }
+
+    private record Entry(Long recipeId, String name, String[] ingredients, String[] steps, long[] terms, long[] bandKeys) {
+    }
+
+    // Keyed by recipe id; recipes.json entries use -1, -2, ... so both share the bitmaps
+    private final Map<Integer, Entry> entries = new HashMap<>();
+    private final Map<Long, RoaringBitmap> buckets = new HashMap<>();
+    private final List<Entry> external;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public SimilarRecipeIndex(@Value("${ai.fallback.recipes-path:}") String recipesPath, ObjectMapper objectMapper) {
+        this.external = recipesPath.isBlank() ? List.of() : load(Paths.get(recipesPath), objectMapper);
+        clear();
+    }
+
+    @Override
+    public void index(Recipe recipe) {
+        if (!recipe.isPublished()) {
+            remove(recipe.getId());
+            return;
+        }
+        String[] ingredients = recipe.getIngredients().stream().map(Ingredient::getName).toArray(String[]::new);
+        Entry entry = entry(recipe.getId(), recipe.getTitle(), ingredients, steps(recipe.getInstructions()));
+
+        int key = Math.toIntExact(recipe.getId());
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(key);
+            if (entry != null) {
+                addUnlocked(key, entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long recipeId) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(Math.toIntExact(recipeId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            buckets.clear();
+            for (int i = 0; i < external.size(); i++) {
+                addUnlocked(-(i + 1), external.get(i));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Up to limit recipes sharing at least one term with the ingredients, most similar first
+    public List<Match> nearest(Collection<String> ingredients, int limit) {
+        long[] terms = terms(ingredients.toArray(new String[0]));
+        if (terms.length == 0 || limit <= 0) {
+            return List.of();
+        }
+        long[] bandKeys = bandKeys(terms);
+
+        lock.readLock().lock();
+        try {
+            // Small buckets come from rare term combinations and are the informative ones; the buckets of very common
+            // ingredients are opened only until MAX_CANDIDATES entries have been read
+            List<RoaringBitmap> hits = new ArrayList<>(bandKeys.length);
+            for (long bandKey : bandKeys) {
+                RoaringBitmap bucket = buckets.get(bandKey);
+                if (bucket != null) {
+                    hits.add(bucket);
+                }
+            }
+            hits.sort(Comparator.comparingInt(RoaringBitmap::getCardinality));
+
+            // atLeast.get(c) holds the candidates sharing at least c + 1 bands with the query. The share of bands in
+            // common estimates the similarity, so only the best-sharing candidates are scored exactly.
+            List<RoaringBitmap> atLeast = new ArrayList<>();
+            long opened = 0;
+            for (RoaringBitmap bucket : hits) {
+                if (atLeast.isEmpty()) {
+                    atLeast.add(bucket.clone());
+                    opened = bucket.getCardinality();
+                    continue;
+                }
+                opened += bucket.getCardinality();
+                if (opened > MAX_CANDIDATES) {
+                    break;
+                }
+                RoaringBitmap top = RoaringBitmap.and(atLeast.get(atLeast.size() - 1), bucket);
+                for (int c = atLeast.size() - 1; c > 0; c--) {
+                    atLeast.get(c).or(RoaringBitmap.and(atLeast.get(c - 1), bucket));
+                }
+                atLeast.get(0).or(bucket);
+                if (!top.isEmpty()) {
+                    atLeast.add(top);
+                }
+            }
+            int scoreLimit = Math.max(limit * 8, MIN_SCORED);
+            RoaringBitmap candidates = new RoaringBitmap();
+            for (int c = atLeast.size() - 1; c >= 0 && candidates.getCardinality() < scoreLimit; c--) {
+                IntIterator level = atLeast.get(c).getIntIterator();
+                while (level.hasNext() && candidates.getCardinality() < scoreLimit) {
+                    candidates.add(level.next());
+                }
+            }
+
+            // Best limit so far, worst first
+            int[] bestKeys = new int[limit];
+            double[] bestScores = new double[limit];
+            int found = 0;
+            IntIterator iterator = candidates.getIntIterator();
+            while (iterator.hasNext()) {
+                int key = iterator.next();
+                double similarity = jaccard(terms, entries.get(key).terms());
+                if (similarity <= 0 || (found == limit && similarity <= bestScores[0])) {
+                    continue;
+                }
+                int i;
+                if (found < limit) {
+                    i = found++;
+                    while (i > 0 && bestScores[i - 1] > similarity) {
+                        bestKeys[i] = bestKeys[i - 1];
+                        bestScores[i] = bestScores[i - 1];
+                        i--;
+                    }
+                } else {
+                    // Drop the worst and sift the new one up into place
+                    i = 0;
+                    while (i + 1 < limit && bestScores[i + 1] < similarity) {
+                        bestKeys[i] = bestKeys[i + 1];
+                        bestScores[i] = bestScores[i + 1];
+                        i++;
+                    }
+                }
+                bestKeys[i] = key;
+                bestScores[i] = similarity;
+            }
+
+            List<Match> matches = new ArrayList<>(found);
+            for (int i = found - 1; i >= 0; i--) {
+                Entry entry = entries.get(bestKeys[i]);
+                matches.add(new Match(entry.recipeId(), entry.name(), List.of(entry.ingredients()), List.of(entry.steps()),
+                        bestScores[i]));
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addUnlocked(int key, Entry entry) {
+        entries.put(key, entry);
+        for (long bandKey : entry.bandKeys()) {
+            buckets.computeIfAbsent(bandKey, k -> new RoaringBitmap()).add(key);
+        }
+    }
+
+    private void removeUnlocked(int key) {
+        Entry previous = entries.remove(key);
+        if (previous == null) {
+            return;
+        }
+        for (long bandKey : previous.bandKeys()) {
+            RoaringBitmap bucket = buckets.get(bandKey);
+            if (bucket != null) {
+                bucket.remove(key);
+                if (bucket.isEmpty()) {
+                    buckets.remove(bandKey);
+                }
+            }
+        }
+    }
+
+    private static Entry entry(Long recipeId, String name, String[] ingredients, String[] steps) {
+        long[] terms = terms(ingredients);
+        return terms.length == 0 ? null : new Entry(recipeId, name, ingredients, steps, terms, bandKeys(terms));
+    }
+
+    // Catalogue recipes keep their instructions as free text, one step per line
+    private static String[] steps(String instructions) {
+        if (instructions == null) {
+            return new String[0];
+        }
+        return instructions.lines().map(String::strip).filter(line -> !line.isEmpty()).toArray(String[]::new);
+    }
+
+    // Sorted, distinct 64-bit hashes of the normalized names and their words
+    private static long[] terms(String[] ingredients) {
+        long[] terms = new long[ingredients.length * 4];
+        int count = 0;
+        for (String ingredient : ingredients) {
+            String name = IngredientBitmapIndex.normalize(ingredient);
+            if (name.isEmpty()) {
+                continue;
+            }
+            String[] words = name.split(" ");
+            if (count + words.length + 1 > terms.length) {
+                terms = Arrays.copyOf(terms, (count + words.length + 1) * 2);
+            }
+            terms[count++] = hash(name);
+            if (words.length > 1) {
+                for (String word : words) {
+                    terms[count++] = hash(word);
+                }
+            }
+        }
+        long[] sorted = Arrays.copyOf(terms, count);
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, distinct);
+    }
+
+    private static long[] bandKeys(long[] terms) {
+        long[] signature = new long[MULTIPLIERS.length];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        for (long term : terms) {
+            for (int i = 0; i < signature.length; i++) {
+                long value = (MULTIPLIERS[i] * term + ADDENDS[i]) >>> 1;
+                if (value < signature[i]) {
+                    signature[i] = value;
+                }
+            }
+        }
+        long[] keys = new long[BANDS];
+        for (int band = 0; band < BANDS; band++) {
+            long key = band;
+            for (int row = 0; row < ROWS; row++) {
+                key = mix(key ^ signature[band * ROWS + row]);
+            }
+            keys[band] = key;
+        }
+        return keys;
+    }
+
+    private static double jaccard(long[] a, long[] b) {
+        int shared = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                shared++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return (double) shared / (a.length + b.length - shared);
+    }
+
+    // FNV-1a over the chars, finished with a mix so that similar strings land far apart
+    private static long hash(String term) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < term.length(); i++) {
+            hash = (hash ^ term.charAt(i)) * 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+
+    // recipes.json is a large array of {name, ingredients, steps}; it is streamed rather than read as one tree
+    private static List<Entry> load(Path path, ObjectMapper objectMapper) {
+        if (!Files.isReadable(path)) {
+            log.warn("Fallback recipes not found at {}, continuing without them", path.toAbsolutePath());
+            return List.of();
+        }
+        List<Entry> loaded = new ArrayList<>();
+        try (JsonParser parser = objectMapper.getFactory().createParser(path.toFile())) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalStateException("Expected a JSON array in " + path);
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                JsonNode recipe = objectMapper.readTree(parser);
+                List<String> ingredients = new ArrayList<>();
+                recipe.path("ingredients").forEach(ingredient -> ingredients.add(ingredient.asText()));
+                List<String> steps = new ArrayList<>();
+                recipe.path("steps").forEach(step -> steps.add(step.asText()));
+                Entry entry = entry(null, recipe.path("name").asText(), ingredients.toArray(new String[0]),
+                        steps.toArray(new String[0]));
+                if (entry != null) {
+                    loaded.add(entry);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read fallback recipes " + path, e);
+        }
+        log.info("Loaded {} fallback recipes from {}", loaded.size(), path);
+        return loaded;
+    }
+}
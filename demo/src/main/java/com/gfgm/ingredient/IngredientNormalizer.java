@@ -0,0 +1,300 @@
+package com.gfgm.ingredient;
+
+import com.gfgm.index.IngredientBitmapIndex;
+import com.gfgm.model.Ingredient;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Maps free-text ingredient names to vocabulary ids. A name is first reduced to a key: normalized words (lower case,
+// punctuation split, plurals singularized), "percent" written as "%" and joined to its number, sorted, so
+// "Lowfat milk, 1 percent" and "1% low-fat milk" differ only in "lowfat". Keys found in the vocabulary map directly;
+// the rest are matched by the Dice coefficient of their word trigrams, accepted from min-score up. Candidates come only
+// from the query's rarest trigram lists and a window of key lengths (prefix and length filtering), and only those that
+// can still reach min-score are scored. Resolved names are cached, so repeated names cost a lookup.
+@Component
+public class IngredientNormalizer {
+    private static final int[] EMPTY = new int[0];
+    private static final ThreadLocal<int[]> SHARED_COUNTS = new ThreadLocal<>();
+
+    private final IngredientVocabulary vocabulary;
+    private final double minScore;
+    private final Map<String, Integer> idsByKey = new HashMap<>();
+    // Trigram to the ids of the vocabulary keys containing it, shortest keys first, so a length window is one slice.
+    // Open addressing over the (already mixed) trigrams, so lookups neither box nor chain.
+    private final long[] postingTrigrams;
+    private final int[][] postings;
+    private final int postingShift;
+    private final long[][] keyTrigrams;
+    private final int[] trigramCounts;
+    private final Cache<String, Integer> resolved;
+
+    public IngredientNormalizer(IngredientVocabulary vocabulary,
+                                @Value("${ingredients.normalizer.min-score:0.7}") double minScore,
+                                @Value("${ingredients.normalizer.cache-size:100000}") long cacheSize,
+                                MeterRegistry meterRegistry) {
+        this.vocabulary = vocabulary;
+        this.minScore = minScore;
+        this.keyTrigrams = new long[vocabulary.size()][];
+        this.trigramCounts = new int[vocabulary.size()];
+
+        Map<Long, List<Integer>> building = new HashMap<>();
+        for (int id = 0; id < vocabulary.size(); id++) {
+            String key = key(vocabulary.nameOf(id));
+            if (key.isEmpty() || idsByKey.putIfAbsent(key, id) != null) {
+                continue;
+            }
+            long[] trigrams = trigrams(key);
+            keyTrigrams[id] = trigrams;
+            trigramCounts[id] = trigrams.length;
+            for (long trigram : trigrams) {
+                building.computeIfAbsent(trigram, t -> new ArrayList<>()).add(id);
+            }
+        }
+        int bits = Math.max(4, 64 - Long.numberOfLeadingZeros(building.size() * 2L));
+        this.postingShift = 64 - bits;
+        this.postingTrigrams = new long[1 << bits];
+        this.postings = new int[1 << bits][];
+        building.forEach((trigram, ids) -> {
+            int slot = slot(trigram);
+            postingTrigrams[slot] = trigram;
+            postings[slot] = ids.stream()
+                    .sorted(Comparator.comparingInt((Integer id) -> trigramCounts[id]).thenComparingInt(id -> id))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        });
+
+        this.resolved = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, resolved, "ingredientNormalizer");
+    }
+
+    // Vocabulary id of a free-text name, or -1 when nothing is close enough
+    public int idOf(String name) {
+        if (name == null || vocabulary.size() == 0) {
+            return -1;
+        }
+        return resolved.get(name, this::resolve);
+    }
+
+    public int[] idsOf(List<String> names) {
+        int[] ids = new int[names.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = idOf(names.get(i));
+        }
+        return ids;
+    }
+
+    // Sets each ingredient's vocabularyId from its name (null when unmatched)
+    public void assign(Collection<Ingredient> ingredients) {
+        for (Ingredient ingredient : ingredients) {
+            int id = idOf(ingredient.getName());
+            ingredient.setVocabularyId(id >= 0 ? id : null);
+        }
+    }
+
+    private int resolve(String name) {
+        String key = key(name);
+        if (key.isEmpty()) {
+            return -1;
+        }
+        Integer exact = idsByKey.get(key);
+        if (exact != null) {
+            return exact;
+        }
+
+        long[] trigrams = trigrams(key);
+        int q = trigrams.length;
+        int[][] lists = new int[q][];
+        for (int i = 0; i < q; i++) {
+            int[] list = postings[slot(trigrams[i])];
+            list = list != null ? list : EMPTY;
+            // Insertion sort by length; a name has a few dozen trigrams at most
+            int j = i;
+            for (; j > 0 && lists[j - 1].length > list.length; j--) {
+                lists[j] = lists[j - 1];
+            }
+            lists[j] = list;
+        }
+        // A Dice score of at least minScore needs minScore / (2 - minScore) of the query's trigrams in common, so a
+        // match is in one of the shortest lists past that many and the common trigrams never add candidates. It can
+        // also only be that much shorter or longer than the query, which is one slice of each list.
+        int needed = Math.max(1, (int) Math.ceil(minScore * q / (2 - minScore) - 1e-9));
+        int prefix = Math.min(q, q - needed + 1);
+        int minLength = (int) Math.ceil(q * minScore / (2 - minScore) - 1e-9);
+        int maxLength = (int) Math.floor(q * (2 - minScore) / minScore + 1e-9);
+
+        int[] counts = SHARED_COUNTS.get();
+        if (counts == null || counts.length < trigramCounts.length) {
+            counts = new int[trigramCounts.length];
+            SHARED_COUNTS.set(counts);
+        }
+        int[] touched = new int[64];
+        int touchedCount = 0;
+        for (int i = 0; i < prefix; i++) {
+            int[] list = lists[i];
+            for (int k = firstOfLength(list, minLength); k < list.length && trigramCounts[list[k]] <= maxLength; k++) {
+                int id = list[k];
+                if (counts[id]++ == 0) {
+                    if (touchedCount == touched.length) {
+                        touched = Arrays.copyOf(touched, touchedCount * 2);
+                    }
+                    touched[touchedCount++] = id;
+                }
+            }
+        }
+
+        // Candidates with the most prefix hits first: a close match raises the bar early, and the rest are left once
+        // even sharing every remaining trigram could not beat it
+        int[] firstWithCount = new int[prefix + 2];
+        for (int i = 0; i < touchedCount; i++) {
+            firstWithCount[prefix - counts[touched[i]] + 1]++;
+        }
+        for (int c = 1; c < firstWithCount.length; c++) {
+            firstWithCount[c] += firstWithCount[c - 1];
+        }
+        int[] ordered = new int[touchedCount];
+        for (int i = 0; i < touchedCount; i++) {
+            ordered[firstWithCount[prefix - counts[touched[i]]]++] = touched[i];
+        }
+
+        int best = -1;
+        double bestScore = minScore;
+        for (int id : ordered) {
+            int n = trigramCounts[id];
+            int reachable = counts[id] + (q - prefix);
+            if (reachable < bestScore * (q + minLength) / 2 - 1e-9) {
+                break;
+            }
+            if (reachable >= bestScore * (q + n) / 2 - 1e-9) {
+                double score = 2.0 * shared(trigrams, keyTrigrams[id]) / (q + n);
+                // Ties go to the shorter, more generic name
+                if (score > bestScore || (score == bestScore && (best < 0 || n < trigramCounts[best]))) {
+                    best = id;
+                    bestScore = score;
+                }
+            }
+        }
+        for (int i = 0; i < touchedCount; i++) {
+            counts[touched[i]] = 0;
+        }
+        return best;
+    }
+
+    // Slot of a trigram in the postings table, or the empty slot where it would go
+    private int slot(long trigram) {
+        int mask = postings.length - 1;
+        int slot = (int) (trigram >>> postingShift);
+        while (postings[slot] != null && postingTrigrams[slot] != trigram) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // Index of the first id in a posting list whose key has at least length trigrams
+    private int firstOfLength(int[] list, int length) {
+        int low = 0;
+        int high = list.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (trigramCounts[list[mid]] < length) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int shared(long[] a, long[] b) {
+        int shared = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                shared++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return shared;
+    }
+
+    // Sorted, distinct normalized words; a number followed by "%" or "percent" becomes one word, "1%"
+    static String key(String name) {
+        String normalized = IngredientBitmapIndex.normalize(name);
+        if (normalized.isEmpty()) {
+            return normalized;
+        }
+        String[] words = normalized.split(" ");
+        List<String> merged = new ArrayList<>(words.length);
+        for (String word : words) {
+            boolean percent = word.equals("%") || word.equals("percent") || word.equals("pct");
+            int last = merged.size() - 1;
+            if (percent && last >= 0 && isNumber(merged.get(last))) {
+                merged.set(last, merged.get(last) + "%");
+            } else if (!percent) {
+                merged.add(word);
+            }
+        }
+        return String.join(" ", merged.stream().distinct().sorted().toList());
+    }
+
+    private static boolean isNumber(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (!Character.isDigit(word.charAt(i)) && word.charAt(i) != '.') {
+                return false;
+            }
+        }
+        return !word.isEmpty();
+    }
+
+    // Distinct trigrams of each word with a boundary marker at both ends, packed three chars to a long and mixed so
+    // that the high bits spread (an odd multiplier keeps distinct trigrams distinct)
+    private static long[] trigrams(String key) {
+        long[] trigrams = new long[key.length()];
+        int count = 0;
+        for (int start = 0; start < key.length(); ) {
+            int end = key.indexOf(' ', start);
+            end = end < 0 ? key.length() : end;
+            int length = end - start;
+            for (int i = 0; i < length; i++) {
+                long packed = ((long) padded(key, start, length, i) << 32)
+                        | ((long) padded(key, start, length, i + 1) << 16)
+                        | padded(key, start, length, i + 2);
+                trigrams[count++] = packed * 0x9E3779B97F4A7C15L;
+            }
+            start = end + 1;
+        }
+        Arrays.sort(trigrams, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (i == 0 || trigrams[i] != trigrams[i - 1]) {
+                trigrams[distinct++] = trigrams[i];
+            }
+        }
+        return Arrays.copyOf(trigrams, distinct);
+    }
+
+    // Char i of the word at start, as if written between two boundary markers
+    private static char padded(String key, int start, int length, int i) {
+        return i == 0 || i > length ? '\0' : key.charAt(start + i - 1);
+    }
+}
@@ -0,0 +1,88 @@
+package com.gfgm.ingredient;
+
+import com.gfgm.repository.IngredientRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Autocomplete over the model vocabulary plus the ingredient names already used in recipes.
+// Names are ranked by how many recipe ingredients use them; vocabulary names nobody used yet still count once.
+// The trie is rebuilt off the request path and swapped in as a whole, so lookups never lock.
+@Slf4j
+@Component
+public class IngredientSuggester {
+    public static final int MAX_SUGGESTIONS = 10;
+    // Ingredient names are at most 255 characters, so a longer prefix matches nothing and is not worth normalizing
+    private static final int MAX_PREFIX_LENGTH = 255;
+
+    private final IngredientVocabulary vocabulary;
+    private final IngredientRepository ingredientRepository;
+
+    private volatile PrefixTrie trie = PrefixTrie.build(new String[0], new int[0], MAX_SUGGESTIONS);
+
+    public IngredientSuggester(IngredientVocabulary vocabulary, IngredientRepository ingredientRepository,
+                               MeterRegistry meterRegistry) {
+        this.vocabulary = vocabulary;
+        this.ingredientRepository = ingredientRepository;
+        Gauge.builder("ingredients.suggest.terms", this, s -> s.trie.termCount()).register(meterRegistry);
+        Gauge.builder("ingredients.suggest.structure.bytes", this, s -> s.trie.structureBytes()).register(meterRegistry);
+    }
+
+    public List<String> suggest(String prefix, int limit) {
+        if (prefix != null && prefix.length() > MAX_PREFIX_LENGTH) {
+            return List.of();
+        }
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        return trie.suggest(key, Math.min(limit, MAX_SUGGESTIONS));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${ingredients.suggest.refresh-interval:PT10M}",
+            fixedDelayString = "${ingredients.suggest.refresh-interval:PT10M}")
+    public void rebuild() {
+        Map<String, Integer> popularity = new TreeMap<>();
+        for (String name : vocabulary.getNames()) {
+            String key = normalize(name);
+            if (!key.isEmpty()) {
+                popularity.merge(key, 1, Integer::sum);
+            }
+        }
+        for (Object[] row : ingredientRepository.countUsesByName()) {
+            String key = normalize((String) row[0]);
+            if (!key.isEmpty()) {
+                popularity.merge(key, ((Number) row[1]).intValue(), Integer::sum);
+            }
+        }
+
+        String[] terms = new String[popularity.size()];
+        int[] counts = new int[terms.length];
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : popularity.entrySet()) {
+            terms[i] = entry.getKey();
+            counts[i++] = entry.getValue();
+        }
+        PrefixTrie rebuilt = PrefixTrie.build(terms, counts, MAX_SUGGESTIONS);
+        trie = rebuilt;
+        log.info("Ingredient suggestions rebuilt: {} names, {} trie nodes, ~{} KB",
+                rebuilt.termCount(), rebuilt.nodeCount(), rebuilt.structureBytes() / 1024);
+    }
+
+    private static String normalize(String name) {
+        if (name == null) {
+            return "";
+        }
+        return name.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,89 @@
+package com.gfgm.ingredient;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ResourceUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// The ingredient names the AI model was trained on (gfgm-ai/ingredients.json); a name's vocabulary id is its position
+@Slf4j
+@Component
+public class IngredientVocabulary {
+    private final List<String> names;
+    // Lower-cased name to vocabulary id
+    private final Map<String, Integer> ids;
+
+    public IngredientVocabulary(@Value("${ai.vocabulary-path:classpath:ai/ingredients.json}") String location,
+                                ObjectMapper objectMapper) {
+        this.names = load(resource(location), objectMapper);
+        Map<String, Integer> ids = new HashMap<>(names.size() * 2);
+        for (int id = 0; id < names.size(); id++) {
+            ids.putIfAbsent(names.get(id).toLowerCase(Locale.ROOT), id);
+        }
+        this.ids = ids;
+    }
+
+    // Trimmed and lower-cased, the form ingredient names are compared in
+    public static String canonicalName(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Vocabulary id of a canonical name, or -1 when the model does not know it
+    public int idOf(String canonicalName) {
+        return ids.getOrDefault(canonicalName, -1);
+    }
+
+    public String nameOf(int id) {
+        return names.get(id);
+    }
+
+    public List<String> getNames() {
+        return names;
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    // classpath:... or an absolute file path; a relative one would depend on where the server was started
+    private static Resource resource(String location) {
+        if (location.startsWith(ResourceUtils.CLASSPATH_URL_PREFIX)) {
+            return new ClassPathResource(location.substring(ResourceUtils.CLASSPATH_URL_PREFIX.length()));
+        }
+        Path path = Paths.get(location.startsWith(ResourceUtils.FILE_URL_PREFIX)
+                ? location.substring(ResourceUtils.FILE_URL_PREFIX.length()) : location);
+        if (!path.isAbsolute()) {
+            throw new IllegalArgumentException("ai.vocabulary-path must be an absolute path or a classpath: location, got "
+                    + location);
+        }
+        return new FileSystemResource(path);
+    }
+
+    private static List<String> load(Resource resource, ObjectMapper objectMapper) {
+        if (!resource.isReadable()) {
+            log.warn("Ingredient vocabulary not found at {}, continuing without it", resource.getDescription());
+            return List.of();
+        }
+        try (InputStream in = resource.getInputStream()) {
+            List<String> names = List.copyOf(objectMapper.readValue(in, new TypeReference<List<String>>() {}));
+            log.info("Loaded {} vocabulary ingredients from {}", names.size(), resource.getDescription());
+            return names;
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read ingredient vocabulary " + resource.getDescription(), e);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.gfgm.ingredient;
+
+import com.gfgm.model.Ingredient;
+import com.gfgm.repository.IngredientRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Objects;
+
+// Brings every stored ingredient's vocabularyId in line with the current vocabulary: rows written before names were
+// normalized, and rows resolved against an older ingredients.json. Runs at startup and with the admin index rebuild;
+// each batch is its own transaction and only rows whose id changed are written.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IngredientVocabularyBackfill {
+    private static final int BATCH_SIZE = 500;
+
+    private final IngredientRepository ingredientRepository;
+    private final IngredientVocabulary vocabulary;
+    private final IngredientNormalizer ingredientNormalizer;
+    private final PlatformTransactionManager transactionManager;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        backfill();
+    }
+
+    // Returns the number of rows updated
+    public int backfill() {
+        // Without a vocabulary every name would resolve to nothing and wipe the stored ids
+        if (vocabulary.size() == 0) {
+            return 0;
+        }
+        long start = System.currentTimeMillis();
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        int updated = 0;
+        Batch batch = new Batch(0L, BATCH_SIZE, 0);
+        while (batch.size() == BATCH_SIZE) {
+            long afterId = batch.lastId();
+            batch = template.execute(status -> {
+                List<Ingredient> ingredients = ingredientRepository.findAfter(afterId, PageRequest.ofSize(BATCH_SIZE));
+                long lastId = ingredients.isEmpty() ? afterId : ingredients.get(ingredients.size() - 1).getId();
+                return new Batch(lastId, ingredients.size(), update(ingredients));
+            });
+            updated += batch.updated();
+        }
+
+        log.info("Backfilled vocabulary ids of {} ingredients in {} ms", updated, System.currentTimeMillis() - start);
+        return updated;
+    }
+
+    private record Batch(long lastId, int size, int updated) {
+    }
+
+    private int update(List<Ingredient> ingredients) {
+        int updated = 0;
+        for (Ingredient ingredient : ingredients) {
+            int id = ingredientNormalizer.idOf(ingredient.getName());
+            Integer vocabularyId = id >= 0 ? id : null;
+            if (!Objects.equals(ingredient.getVocabularyId(), vocabularyId)) {
+                ingredient.setVocabularyId(vocabularyId);
+                updated++;
+            }
+        }
+        return updated;
+    }
+}
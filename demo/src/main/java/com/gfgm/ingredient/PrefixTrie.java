@@ -0,0 +1,163 @@
+package com.gfgm.ingredient;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+// Immutable trie over a sorted term list, stored in flat primitive arrays (first child / next sibling layout).
+// Each node covers a contiguous range of the sorted terms; nodes whose range is larger than topK also keep
+// their topK most popular terms precomputed, so a lookup never scans more than topK terms.
+final class PrefixTrie {
+    private static final int ROOT = 0;
+    private static final int NONE = -1;
+
+    private final String[] terms;
+    private final int[] popularity;
+    private final int topK;
+
+    private final char[] labels;
+    private final int[] firstChild;
+    private final int[] nextSibling;
+    private final int[] rangeStart;
+    private final int[] rangeEnd;
+    private final int[] topOffset;
+    private final int[] topTerms;
+
+    private PrefixTrie(String[] terms, int[] popularity, int topK, char[] labels, int[] firstChild, int[] nextSibling,
+                       int[] rangeStart, int[] rangeEnd, int[] topOffset, int[] topTerms) {
+        this.terms = terms;
+        this.popularity = popularity;
+        this.topK = topK;
+        this.labels = labels;
+        this.firstChild = firstChild;
+        this.nextSibling = nextSibling;
+        this.rangeStart = rangeStart;
+        this.rangeEnd = rangeEnd;
+        this.topOffset = topOffset;
+        this.topTerms = topTerms;
+    }
+
+    // terms must be sorted and distinct; popularity[i] belongs to terms[i]
+    static PrefixTrie build(String[] terms, int[] popularity, int topK) {
+        int capacity = 1;
+        for (String term : terms) {
+            capacity += term.length();
+        }
+        char[] labels = new char[capacity];
+        int[] firstChild = new int[capacity];
+        int[] nextSibling = new int[capacity];
+        int[] lastChild = new int[capacity];
+        int[] rangeStart = new int[capacity];
+        int[] rangeEnd = new int[capacity];
+        Arrays.fill(firstChild, NONE);
+        Arrays.fill(nextSibling, NONE);
+        Arrays.fill(lastChild, NONE);
+
+        int nodes = 1;
+        rangeStart[ROOT] = 0;
+        rangeEnd[ROOT] = terms.length;
+        for (int t = 0; t < terms.length; t++) {
+            String term = terms[t];
+            int node = ROOT;
+            for (int i = 0; i < term.length(); i++) {
+                char c = term.charAt(i);
+                // Terms arrive sorted, so a matching child can only be the most recently added one
+                int child = lastChild[node];
+                if (child == NONE || labels[child] != c) {
+                    child = nodes++;
+                    labels[child] = c;
+                    rangeStart[child] = t;
+                    if (lastChild[node] == NONE) {
+                        firstChild[node] = child;
+                    } else {
+                        nextSibling[lastChild[node]] = child;
+                    }
+                    lastChild[node] = child;
+                }
+                rangeEnd[child] = t + 1;
+                node = child;
+            }
+        }
+
+        int[] topOffset = new int[nodes];
+        Arrays.fill(topOffset, NONE);
+        int stored = 0;
+        for (int node = 0; node < nodes; node++) {
+            if (rangeEnd[node] - rangeStart[node] > topK) {
+                stored += topK;
+            }
+        }
+        int[] topTerms = new int[stored];
+        int next = 0;
+        for (int node = 0; node < nodes; node++) {
+            if (rangeEnd[node] - rangeStart[node] > topK) {
+                topOffset[node] = next;
+                int[] best = mostPopular(popularity, rangeStart[node], rangeEnd[node], topK);
+                System.arraycopy(best, 0, topTerms, next, topK);
+                next += topK;
+            }
+        }
+
+        return new PrefixTrie(terms, popularity, topK,
+                Arrays.copyOf(labels, nodes), Arrays.copyOf(firstChild, nodes), Arrays.copyOf(nextSibling, nodes),
+                Arrays.copyOf(rangeStart, nodes), Arrays.copyOf(rangeEnd, nodes), topOffset, topTerms);
+    }
+
+    List<String> suggest(String prefix, int limit) {
+        int node = ROOT;
+        for (int i = 0; i < prefix.length() && node != NONE; i++) {
+            char c = prefix.charAt(i);
+            int child = firstChild[node];
+            while (child != NONE && labels[child] < c) {
+                child = nextSibling[child];
+            }
+            node = child != NONE && labels[child] == c ? child : NONE;
+        }
+        if (node == NONE) {
+            return List.of();
+        }
+
+        int count = Math.min(limit, topK);
+        List<String> suggestions = new ArrayList<>(count);
+        if (topOffset[node] != NONE) {
+            for (int i = 0; i < count; i++) {
+                suggestions.add(terms[topTerms[topOffset[node] + i]]);
+            }
+        } else {
+            for (int t : mostPopular(popularity, rangeStart[node], rangeEnd[node], count)) {
+                suggestions.add(terms[t]);
+            }
+        }
+        return suggestions;
+    }
+
+    int termCount() {
+        return terms.length;
+    }
+
+    int nodeCount() {
+        return labels.length;
+    }
+
+    // Approximate bytes held by the arrays of this trie, excluding the term strings themselves
+    long structureBytes() {
+        return (long) labels.length * (Character.BYTES + 5L * Integer.BYTES) + (long) topTerms.length * Integer.BYTES
+                + (long) popularity.length * Integer.BYTES;
+    }
+
+    // Indices of the most popular terms in [start, end), most popular first, alphabetical on ties
+    private static int[] mostPopular(int[] popularity, int start, int end, int k) {
+        Integer[] range = new Integer[end - start];
+        for (int i = start; i < end; i++) {
+            range[i - start] = i;
+        }
+        Arrays.sort(range, Comparator.<Integer>comparingInt(i -> popularity[i]).reversed()
+                .thenComparingInt(i -> i));
+        int[] best = new int[Math.min(k, range.length)];
+        for (int i = 0; i < best.length; i++) {
+            best[i] = range[i];
+        }
+        return best;
+    }
+}
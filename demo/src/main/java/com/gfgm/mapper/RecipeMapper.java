@@ -1,12 +1,14 @@
 package com.gfgm.mapper;
 
 import com.gfgm.dto.IngredientDTO;
+import com.gfgm.dto.IngredientRequest;
 import com.gfgm.dto.RecipeDTO;
 import com.gfgm.dto.UserSummaryDTO;
 import com.gfgm.model.Ingredient;
 import com.gfgm.model.Recipe;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -24,6 +26,7 @@ public class RecipeMapper {
         dto.setDescription(recipe.getDescription());
         dto.setInstructions(recipe.getInstructions());
         dto.setImageUrl(recipe.getImageUrl());
+        dto.setImageStatus(recipe.getImageStatus());
         dto.setPrepTime(recipe.getPrepTime());
         dto.setCookTime(recipe.getCookTime());
         dto.setServings(recipe.getServings());
@@ -74,6 +77,7 @@ public class RecipeMapper {
         dto.setName(ingredient.getName());
         dto.setAmount(ingredient.getAmount());
         dto.setUnit(ingredient.getUnit());
+        dto.setVocabularyId(ingredient.getVocabularyId());
         return dto;
     }
 
@@ -85,4 +89,23 @@ public class RecipeMapper {
                 .map(this::toDTO)
                 .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+
+    public List<Ingredient> toIngredients(Recipe recipe, List<IngredientRequest> requests) {
+        return toIngredients(recipe, requests, 0);
+    }
+
+    // Positions count on from firstPosition, for rows appended after existing ones
+    public List<Ingredient> toIngredients(Recipe recipe, List<IngredientRequest> requests, int firstPosition) {
+        List<Ingredient> ingredients = new ArrayList<>(requests.size());
+        for (IngredientRequest req : requests) {
+            Ingredient ingredient = new Ingredient();
+            ingredient.setName(req.getName());
+            ingredient.setAmount(req.getAmount());
+            ingredient.setUnit(req.getUnit());
+            ingredient.setPosition(firstPosition + ingredients.size());
+            ingredient.setRecipe(recipe);
+            ingredients.add(ingredient);
+        }
+        return ingredients;
+    }
+}
@@ -0,0 +1,16 @@
+package com.gfgm.model;
+
+// Shared id table for entities that are inserted in bulk. Unlike IDENTITY columns, ids handed out in
+// blocks of ALLOCATION_SIZE are known before the INSERT, so Hibernate can send the rows as one JDBC batch.
+public final class IdGenerators {
+    public static final String TABLE = "id_generators";
+    public static final String NAME_COLUMN = "name";
+    public static final String VALUE_COLUMN = "next_val";
+    public static final int ALLOCATION_SIZE = 50;
+
+    public static final String RECIPES = "recipes";
+    public static final String INGREDIENTS = "ingredients";
+
+    private IdGenerators() {
+    }
+}
@@ -0,0 +1,8 @@
+package com.gfgm.model;
+
+// Where an uploaded image is in the background pipeline; null on rows that never had an upload processed
+public enum ImageStatus {
+    PENDING,
+    READY,
+    FAILED
+}
@@ -16,7 +16,10 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class Ingredient {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "ingredient_ids")
+    @TableGenerator(name = "ingredient_ids", table = IdGenerators.TABLE, pkColumnName = IdGenerators.NAME_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = IdGenerators.INGREDIENTS,
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
 
     @NotBlank(message = "Name is required")
@@ -29,6 +32,12 @@ public class Ingredient {
     @NotBlank(message = "Unit is required")
     private String unit;
 
+    // Place in the recipe's ingredient list; rows written before it was kept have none and sort by id
+    private Integer position;
+
+    // Id of the name in the AI model vocabulary (IngredientNormalizer), null when nothing matched
+    private Integer vocabularyId;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "recipe_id", nullable = false)
     @JsonIgnore
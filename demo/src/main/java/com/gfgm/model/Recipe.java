@@ -7,6 +7,7 @@ import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -15,13 +16,20 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "recipes")
+@Table(name = "recipes", indexes = {
+        @Index(name = "idx_recipes_published_created_at_id", columnList = "is_published, created_at, id"),
+        @Index(name = "idx_recipes_ai_created_at_id", columnList = "generated_by_ai, created_at, id"),
+        @Index(name = "idx_recipes_user_created_at_id", columnList = "user_id, created_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Recipe {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "recipe_ids")
+    @TableGenerator(name = "recipe_ids", table = IdGenerators.TABLE, pkColumnName = IdGenerators.NAME_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = IdGenerators.RECIPES,
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
 
     @NotBlank(message = "Title is required")
@@ -34,7 +42,14 @@ public class Recipe {
     private String instructions;
 
     private String imageUrl;
-    
+
+    // Token of an upload still in the image pipeline; imageUrl keeps showing the previous image until it is ready
+    @JsonIgnore
+    private String pendingImage;
+
+    @Enumerated(EnumType.STRING)
+    private ImageStatus imageStatus;
+
     private Integer prepTime;
     private Integer cookTime;
     private Integer servings;
@@ -55,7 +70,10 @@ public class Recipe {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
+    // Initializing one recipe's ingredients loads them for every recipe of the page in the same query
     @OneToMany(mappedBy = "recipe", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("position ASC, id ASC")
+    @BatchSize(size = 100)
     private List<Ingredient> ingredients = new ArrayList<>();
 
     @CreationTimestamp
@@ -0,0 +1,21 @@
+package com.gfgm.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One file of the content-addressed image store and the number of recipe and user rows pointing at it
+@Entity
+@Table(name = "stored_images")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoredImage {
+    @Id
+    @Column(length = 80)
+    private String name;
+
+    @Column(nullable = false)
+    private int refCount;
+}
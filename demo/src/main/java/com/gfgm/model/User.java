@@ -39,6 +39,13 @@ public class User {
     private String firstName;
     private String lastName;
     private String profilePicture;
+
+    // Set while an upload is in the image pipeline, like Recipe.pendingImage
+    @JsonIgnore
+    private String pendingProfilePicture;
+
+    @Enumerated(EnumType.STRING)
+    private ImageStatus profilePictureStatus;
     
     @Column(columnDefinition = "TEXT")
     private String bio;
@@ -55,6 +62,11 @@ public class User {
     @Enumerated(EnumType.STRING)
     private Role role = Role.USER;
 
+    // Bumped on every username, role or password change; tokens carrying an older value are refused
+    @JsonIgnore
+    @Column(nullable = false, columnDefinition = "int default 0")
+    private int tokenVersion;
+
     @Transient
     @JsonIgnore
     private String token;
@@ -2,11 +2,26 @@ package com.gfgm.repository;
 
 import com.gfgm.model.Ingredient;
 import com.gfgm.model.Recipe;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface IngredientRepository extends JpaRepository<Ingredient, Long> {
     List<Ingredient> findAllByRecipe(Recipe recipe);
-    void deleteAllByRecipe(Recipe recipe);
+
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM Ingredient i WHERE i.recipe.id IN :recipeIds")
+    int deleteByRecipeIdIn(@Param("recipeIds") Collection<Long> recipeIds);
+
+    @Query("SELECT i FROM Ingredient i WHERE i.id > :afterId ORDER BY i.id")
+    List<Ingredient> findAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // (name, uses) pairs for ingredient autocomplete
+    @Query("SELECT LOWER(TRIM(i.name)), COUNT(i) FROM Ingredient i WHERE i.name IS NOT NULL GROUP BY LOWER(TRIM(i.name))")
+    List<Object[]> countUsesByName();
 } 
\ No newline at end of file
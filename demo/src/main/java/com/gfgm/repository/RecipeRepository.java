@@ -1,28 +1,176 @@
 package com.gfgm.repository;
 
+import com.gfgm.dto.ImageStatusResponse;
+import com.gfgm.dto.RecipeCardDTO;
+import com.gfgm.dto.RecipeVersion;
 import com.gfgm.model.Recipe;
+import com.gfgm.model.RecipeCategory;
 import com.gfgm.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface RecipeRepository extends JpaRepository<Recipe, Long> {
+    String CARD_SELECT = "SELECT new com.gfgm.dto.RecipeCardDTO(r.id, r.title, r.imageUrl, r.prepTime, r.cookTime, " +
+            "r.servings, r.category, r.calories, r.protein, r.carbs, r.fat, r.fiber, r.sugar, r.generatedByAi, r.createdAt) " +
+            "FROM Recipe r";
+
+    @Query("SELECT new com.gfgm.dto.RecipeVersion(r.id, r.updatedAt, u.updatedAt) " +
+            "FROM Recipe r LEFT JOIN r.user u WHERE r.id = :id")
+    Optional<RecipeVersion> findVersionById(@Param("id") Long id);
+
+    // List queries fetch the author with the page; ingredients are batch loaded (see Recipe.ingredients)
+    @Override
+    @EntityGraph(attributePaths = "user")
+    Page<Recipe> findAll(Pageable pageable);
+
+    @EntityGraph(attributePaths = "user")
     Page<Recipe> findAllByIsPublishedTrue(Pageable pageable);
+
+    @EntityGraph(attributePaths = "user")
     Page<Recipe> findAllByUser(User user, Pageable pageable);
+
+    // Unpaged lookup for ids coming from an in-memory index, so both associations can be fetch joined
+    @EntityGraph(attributePaths = {"user", "ingredients"})
+    List<Recipe> findAllByIdIn(Collection<Long> ids);
     
-    @Query("SELECT r FROM Recipe r WHERE " +
-           "r.isPublished = true AND " +
-           "(LOWER(r.title) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-           "LOWER(r.description) LIKE LOWER(CONCAT('%', :query, '%')))")
-    Page<Recipe> searchRecipes(@Param("query") String query, Pageable pageable);
+    @EntityGraph(attributePaths = {"user", "ingredients"})
+    @Query("SELECT r FROM Recipe r WHERE r.id = :id")
+    Optional<Recipe> findDetailById(@Param("id") Long id);
+
+    @Query("SELECT r FROM Recipe r LEFT JOIN FETCH r.ingredients WHERE r.id = :id")
+    Optional<Recipe> findWithIngredientsById(@Param("id") Long id);
+
+    @Query("SELECT DISTINCT r FROM Recipe r LEFT JOIN FETCH r.ingredients WHERE r.id IN :ids")
+    List<Recipe> findAllWithIngredientsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT r.id FROM Recipe r WHERE r.id > :afterId ORDER BY r.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT r.id FROM Recipe r WHERE r.user.id = :userId")
+    List<Long> findIdsByUserId(@Param("userId") Long userId);
+
+    // Keyset batches of the ids matching a bulk admin filter; null criteria match everything
+    @Query("SELECT r.id FROM Recipe r WHERE r.id > :afterId" +
+           " AND (:userId IS NULL OR r.user.id = :userId)" +
+           " AND (:generatedByAi IS NULL OR r.generatedByAi = :generatedByAi)" +
+           " AND (:published IS NULL OR r.isPublished = :published)" +
+           " AND (:category IS NULL OR r.category = :category)" +
+           " AND (:createdBefore IS NULL OR r.createdAt < :createdBefore)" +
+           " ORDER BY r.id")
+    List<Long> findIdsMatching(@Param("afterId") Long afterId,
+                               @Param("userId") Long userId,
+                               @Param("generatedByAi") Boolean generatedByAi,
+                               @Param("published") Boolean published,
+                               @Param("category") RecipeCategory category,
+                               @Param("createdBefore") LocalDateTime createdBefore,
+                               Pageable pageable);
+
+    @Query("SELECT r.id FROM Recipe r WHERE r.user.id IN :userIds AND r.id > :afterId ORDER BY r.id")
+    List<Long> findIdsByUserIdIn(@Param("userIds") Collection<Long> userIds, @Param("afterId") Long afterId,
+                                 Pageable pageable);
+
+    @Query("SELECT r.imageUrl FROM Recipe r WHERE r.id IN :ids AND r.imageUrl IS NOT NULL")
+    List<String> findImageUrlsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Set-based writes for bulk admin operations; they bypass @UpdateTimestamp, so updatedAt is set explicitly
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Recipe r SET r.isPublished = :published, r.updatedAt = :now WHERE r.id IN :ids AND r.isPublished <> :published")
+    int updatePublishedByIdIn(@Param("ids") Collection<Long> ids, @Param("published") boolean published,
+                              @Param("now") LocalDateTime now);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Recipe r SET r.category = :category, r.updatedAt = :now " +
+           "WHERE r.id IN :ids AND (r.category IS NULL OR r.category <> :category)")
+    int updateCategoryByIdIn(@Param("ids") Collection<Long> ids, @Param("category") RecipeCategory category,
+                             @Param("now") LocalDateTime now);
+
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM Recipe r WHERE r.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new com.gfgm.dto.ImageStatusResponse(r.imageStatus, r.imageUrl) FROM Recipe r WHERE r.id = :id")
+    Optional<ImageStatusResponse> findImageStatusById(@Param("id") Long id);
+
+    @Query("SELECT r.imageUrl FROM Recipe r WHERE r.id = :id")
+    Optional<String> findImageUrlById(@Param("id") Long id);
+
+    // Written by the image pipeline once an upload is processed; a recipe that has since taken another upload
+    // (or was deleted) no longer matches the upload's token and is left alone
+    @Transactional
+    @Modifying
+    @Query("UPDATE Recipe r SET r.imageUrl = :filename, r.pendingImage = NULL, " +
+           "r.imageStatus = com.gfgm.model.ImageStatus.READY, r.updatedAt = :now " +
+           "WHERE r.id = :id AND r.pendingImage = :token")
+    int completePendingImage(@Param("id") Long id, @Param("token") String token, @Param("filename") String filename,
+                             @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Recipe r SET r.pendingImage = NULL, r.imageStatus = com.gfgm.model.ImageStatus.FAILED, " +
+           "r.updatedAt = :now WHERE r.id = :id AND r.pendingImage = :token")
+    int failPendingImage(@Param("id") Long id, @Param("token") String token, @Param("now") LocalDateTime now);
     
+    // Keyset pages on (createdAt, id): no OFFSET and no COUNT, so every page costs the same
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT r FROM Recipe r WHERE r.isPublished = true AND " +
+           "(r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<Recipe> findPublishedPageBefore(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT r FROM Recipe r WHERE r.generatedByAi = true AND " +
+           "(r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<Recipe> findAiGeneratedPageBefore(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT r FROM Recipe r WHERE r.user = :user AND " +
+           "(r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<Recipe> findUserPageBefore(@Param("user") User user, @Param("createdAt") LocalDateTime createdAt,
+                                    @Param("id") Long id, Pageable pageable);
+
+    long countByUser(User user);
+
+    // Card projections: no TEXT columns, no ingredient rows, no author join
+    @Query(value = CARD_SELECT + " WHERE r.isPublished = true",
+           countQuery = "SELECT COUNT(r) FROM Recipe r WHERE r.isPublished = true")
+    Page<RecipeCardDTO> findPublishedCards(Pageable pageable);
+
+    @Query(value = CARD_SELECT + " WHERE r.generatedByAi = true",
+           countQuery = "SELECT COUNT(r) FROM Recipe r WHERE r.generatedByAi = true")
+    Page<RecipeCardDTO> findAiGeneratedCards(Pageable pageable);
+
+    @Query(CARD_SELECT + " WHERE r.id IN :ids")
+    List<RecipeCardDTO> findCardsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(CARD_SELECT + " WHERE r.isPublished = true AND " +
+           "(r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<RecipeCardDTO> findPublishedCardPageBefore(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    @Query(CARD_SELECT + " WHERE r.generatedByAi = true AND " +
+           "(r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<RecipeCardDTO> findAiGeneratedCardPageBefore(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
     List<Recipe> findTop5ByUserOrderByCreatedAtDesc(User user);
     
     long countByGeneratedByAiTrue();
+
+    long countByIsPublishedTrue();
     
+    @EntityGraph(attributePaths = "user")
     Page<Recipe> findAllByGeneratedByAiTrue(Pageable pageable);
 } 
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.gfgm.repository;
+
+import com.gfgm.model.StoredImage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface StoredImageRepository extends JpaRepository<StoredImage, String> {
+    @Modifying
+    @Query("UPDATE StoredImage s SET s.refCount = s.refCount + 1 WHERE s.name = :name")
+    int incrementRefCount(@Param("name") String name);
+
+    @Modifying
+    @Query("UPDATE StoredImage s SET s.refCount = s.refCount - :count WHERE s.name = :name AND s.refCount > 0")
+    int decrementRefCount(@Param("name") String name, @Param("count") int count);
+
+    @Modifying
+    @Query("DELETE FROM StoredImage s WHERE s.name = :name AND s.refCount <= 0")
+    int deleteUnreferenced(@Param("name") String name);
+}
@@ -1,8 +1,16 @@
 package com.gfgm.repository;
 
+import com.gfgm.dto.ImageStatusResponse;
 import com.gfgm.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -10,4 +18,38 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
+
+    @Query("SELECT u.id FROM User u WHERE u.username = :username")
+    Optional<Long> findIdByUsername(@Param("username") String username);
+
+    @Query("SELECT u.id, u.tokenVersion FROM User u")
+    List<Object[]> findAllTokenVersions();
+
+    @Query("SELECT u.profilePicture FROM User u WHERE u.id IN :ids AND u.profilePicture IS NOT NULL")
+    List<String> findProfilePicturesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM User u WHERE u.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new com.gfgm.dto.ImageStatusResponse(u.profilePictureStatus, u.profilePicture) FROM User u WHERE u.id = :id")
+    Optional<ImageStatusResponse> findProfilePictureStatusById(@Param("id") Long id);
+
+    @Query("SELECT u.profilePicture FROM User u WHERE u.id = :id")
+    Optional<String> findProfilePictureById(@Param("id") Long id);
+
+    // Image pipeline counterparts of RecipeRepository.completePendingImage / failPendingImage
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.profilePicture = :filename, u.pendingProfilePicture = NULL, " +
+           "u.profilePictureStatus = com.gfgm.model.ImageStatus.READY, u.updatedAt = :now " +
+           "WHERE u.id = :id AND u.pendingProfilePicture = :token")
+    int completePendingProfilePicture(@Param("id") Long id, @Param("token") String token,
+                                      @Param("filename") String filename, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.pendingProfilePicture = NULL, u.profilePictureStatus = com.gfgm.model.ImageStatus.FAILED, " +
+           "u.updatedAt = :now WHERE u.id = :id AND u.pendingProfilePicture = :token")
+    int failPendingProfilePicture(@Param("id") Long id, @Param("token") String token, @Param("now") LocalDateTime now);
 } 
\ No newline at end of file
@@ -0,0 +1,230 @@
+package com.gfgm.search;
+
+import com.gfgm.index.RecipeIndex;
+import com.gfgm.model.Ingredient;
+import com.gfgm.model.Recipe;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Inverted index over published recipes, ranked with BM25 over field weighted term frequencies
+@Component
+public class RecipeSearchIndex implements RecipeIndex {
+    private static final float TITLE_WEIGHT = 3.0f;
+    private static final float CATEGORY_WEIGHT = 2.0f;
+    private static final float INGREDIENT_WEIGHT = 2.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // Partial last words ("chick") are expanded to at most this many indexed terms, at a discount
+    private static final int MAX_PREFIX_EXPANSIONS = 32;
+    private static final double PREFIX_MATCH_BOOST = 0.6;
+
+    private final NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>();
+    private final Map<Long, Map<String, Float>> documents = new HashMap<>();
+    private final Map<Long, Float> documentLengths = new HashMap<>();
+    private double totalLength;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Best score first, newest recipe first on ties
+    private static final Comparator<SearchHit> HIT_ORDER = Comparator.comparingDouble(SearchHit::getScore).reversed()
+            .thenComparing(SearchHit::getRecipeId, Comparator.reverseOrder());
+
+    @Override
+    public void index(Recipe recipe) {
+        if (!recipe.isPublished()) {
+            remove(recipe.getId());
+            return;
+        }
+
+        Map<String, Float> termFrequencies = new HashMap<>();
+        addField(termFrequencies, recipe.getTitle(), TITLE_WEIGHT);
+        if (recipe.getCategory() != null) {
+            addField(termFrequencies, recipe.getCategory().name().replace('_', ' '), CATEGORY_WEIGHT);
+        }
+        if (recipe.getIngredients() != null) {
+            for (Ingredient ingredient : recipe.getIngredients()) {
+                addField(termFrequencies, ingredient.getName(), INGREDIENT_WEIGHT);
+            }
+        }
+        addField(termFrequencies, recipe.getDescription(), DESCRIPTION_WEIGHT);
+
+        float length = 0f;
+        for (float frequency : termFrequencies.values()) {
+            length += frequency;
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(recipe.getId());
+            Long id = recipe.getId();
+            termFrequencies.forEach((term, frequency) ->
+                    postings.computeIfAbsent(term, t -> new HashMap<>()).put(id, frequency));
+            documents.put(id, termFrequencies);
+            documentLengths.put(id, length);
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long recipeId) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(recipeId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            documentLengths.clear();
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public SearchResult search(String query, long offset, int limit) {
+        List<SearchHit> ranked = rank(query);
+        int from = (int) Math.min(offset, ranked.size());
+        int to = (int) Math.min((long) from + limit, ranked.size());
+        return new SearchResult(ranked.subList(from, to), ranked.size());
+    }
+
+    // Keyset variant: hits ranked strictly after (afterScore, afterId), or from the top when afterId is null
+    public SearchResult searchAfter(String query, Double afterScore, Long afterId, int limit) {
+        List<SearchHit> ranked = rank(query);
+        int from = 0;
+        if (afterId != null) {
+            int position = Collections.binarySearch(ranked, new SearchHit(afterId, afterScore), HIT_ORDER);
+            from = position >= 0 ? position + 1 : -position - 1;
+        }
+        int to = Math.min(from + limit, ranked.size());
+        return new SearchResult(ranked.subList(from, to), ranked.size());
+    }
+
+    private List<SearchHit> rank(String query) {
+        List<String> queryTerms = TextAnalyzer.analyze(query);
+        if (queryTerms.isEmpty()) {
+            return List.of();
+        }
+        boolean expandLastTerm = !Character.isWhitespace(query.charAt(query.length() - 1));
+
+        Map<Long, Double> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            int documentCount = documents.size();
+            if (documentCount == 0) {
+                return List.of();
+            }
+            double averageLength = totalLength / documentCount;
+
+            for (int i = 0; i < queryTerms.size(); i++) {
+                String term = queryTerms.get(i);
+                scoreTerm(scores, postings.get(term), 1.0, documentCount, averageLength);
+
+                if (expandLastTerm && i == queryTerms.size() - 1 && term.length() >= 3) {
+                    int expansions = 0;
+                    for (Map.Entry<String, Map<Long, Float>> entry : postings.tailMap(term, false).entrySet()) {
+                        if (!entry.getKey().startsWith(term) || expansions++ >= MAX_PREFIX_EXPANSIONS) {
+                            break;
+                        }
+                        scoreTerm(scores, entry.getValue(), PREFIX_MATCH_BOOST, documentCount, averageLength);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<SearchHit> ranked = new ArrayList<>(scores.size());
+        scores.forEach((id, score) -> ranked.add(new SearchHit(id, score)));
+        ranked.sort(HIT_ORDER);
+        return ranked;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void scoreTerm(Map<Long, Double> scores, Map<Long, Float> termPostings, double boost,
+                           int documentCount, double averageLength) {
+        if (termPostings == null) {
+            return;
+        }
+        int documentFrequency = termPostings.size();
+        double idf = Math.log(1 + (documentCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+        termPostings.forEach((id, frequency) -> {
+            double norm = K1 * (1 - B + B * documentLengths.get(id) / averageLength);
+            double score = boost * idf * frequency * (K1 + 1) / (frequency + norm);
+            scores.merge(id, score, Double::sum);
+        });
+    }
+
+    private void removeUnlocked(Long recipeId) {
+        Map<String, Float> previous = documents.remove(recipeId);
+        if (previous == null) {
+            return;
+        }
+        for (String term : previous.keySet()) {
+            Map<Long, Float> termPostings = postings.get(term);
+            if (termPostings != null) {
+                termPostings.remove(recipeId);
+                if (termPostings.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        totalLength -= documentLengths.remove(recipeId);
+    }
+
+    private static void addField(Map<String, Float> termFrequencies, String text, float weight) {
+        for (String term : TextAnalyzer.analyze(text)) {
+            termFrequencies.merge(term, weight, Float::sum);
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class SearchHit {
+        private final Long recipeId;
+        private final double score;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class SearchResult {
+        private final List<SearchHit> hits;
+        private final long totalHits;
+
+        public List<Long> getRecipeIds() {
+            return hits.stream().map(SearchHit::getRecipeId).toList();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.gfgm.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+// Lowercases, strips accents, splits on non alphanumerics, drops stop words and applies a light English stemmer
+final class TextAnalyzer {
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "into", "is", "it",
+            "of", "on", "or", "the", "to", "with", "without", "your", "this", "that"
+    );
+
+    private TextAnalyzer() {
+    }
+
+    static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return terms;
+        }
+
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean tokenChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (tokenChar && start < 0) {
+                start = i;
+            } else if (!tokenChar && start >= 0) {
+                String token = normalized.substring(start, i);
+                if (!STOP_WORDS.contains(token)) {
+                    terms.add(stem(token));
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    // Conservative suffix stripping: enough to match "tomatoes"/"tomato" and "baked"/"baking"/"bake"
+    static String stem(String token) {
+        int length = token.length();
+        if (length <= 3 || Character.isDigit(token.charAt(0))) {
+            return token;
+        }
+        if (token.endsWith("ies") && length > 4) {
+            return token.substring(0, length - 3) + "y";
+        }
+        if (token.endsWith("oes") || token.endsWith("ches") || token.endsWith("shes")
+                || token.endsWith("sses") || token.endsWith("xes")) {
+            return token.substring(0, length - 2);
+        }
+        if (token.endsWith("ing") && length > 5) {
+            return restoreE(token.substring(0, length - 3));
+        }
+        if (token.endsWith("ed") && length > 4) {
+            return restoreE(token.substring(0, length - 2));
+        }
+        if (token.endsWith("ly") && length > 4) {
+            return token.substring(0, length - 2);
+        }
+        if (token.endsWith("s") && !token.endsWith("ss") && !token.endsWith("us")) {
+            return token.substring(0, length - 1);
+        }
+        return token;
+    }
+
+    // "bak" -> "bake", "chopp" -> "chop"
+    private static String restoreE(String stem) {
+        int length = stem.length();
+        char last = stem.charAt(length - 1);
+        if (length > 2 && last == stem.charAt(length - 2) && !isVowel(last) && last != 'l' && last != 's') {
+            return stem.substring(0, length - 1);
+        }
+        if (length >= 3 && !isVowel(last) && isVowel(stem.charAt(length - 2)) && !isVowel(stem.charAt(length - 3))
+                && last != 'w' && last != 'x' && last != 'y') {
+            return stem + "e";
+        }
+        return stem;
+    }
+
+    private static boolean isVowel(char c) {
+        return c == 'a' || c == 'e' || c == 'i' || c == 'o' || c == 'u';
+    }
+}
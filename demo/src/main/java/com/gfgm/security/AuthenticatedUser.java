@@ -0,0 +1,106 @@
+package com.gfgm.security;
+
+import com.gfgm.model.Role;
+import com.gfgm.model.User;
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+// The principal of an authenticated request. Built from the signed uid and role claims of the JWT,
+// so identifying the caller costs no query; only logins load it from the database.
+public class AuthenticatedUser implements UserDetails, CredentialsContainer {
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String ROLE_CLAIM = "role";
+    public static final String TOKEN_VERSION_CLAIM = "ver";
+
+    private final Long id;
+    private final String username;
+    private final Role role;
+    private final List<GrantedAuthority> authorities;
+    private String password;
+
+    public AuthenticatedUser(Long id, String username, Role role, String password) {
+        this.id = id;
+        this.username = username;
+        this.role = role;
+        this.authorities = List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+        this.password = password;
+    }
+
+    public static AuthenticatedUser of(User user) {
+        return new AuthenticatedUser(user.getId(), user.getUsername(), user.getRole(), user.getPassword());
+    }
+
+    // Null for tokens issued before the uid and role claims existed
+    public static AuthenticatedUser fromClaims(Claims claims) {
+        Number id = claims.get(USER_ID_CLAIM, Number.class);
+        String role = claims.get(ROLE_CLAIM, String.class);
+        if (id == null || role == null || claims.getSubject() == null) {
+            return null;
+        }
+        try {
+            return new AuthenticatedUser(id.longValue(), claims.getSubject(), Role.valueOf(role), null);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // 0 for tokens issued before the version claim existed
+    public static int tokenVersionOf(Claims claims) {
+        Number version = claims.get(TOKEN_VERSION_CLAIM, Number.class);
+        return version != null ? version.intValue() : 0;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Role getRole() {
+        return role;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public void eraseCredentials() {
+        password = null;
+    }
+}
@@ -1,5 +1,6 @@
 package com.gfgm.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,12 +9,12 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
@@ -21,6 +22,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final CustomUserDetailsService userDetailsService;
+    private final TokenVersionRegistry tokenVersions;
 
     @Override
     protected void doFilterInternal(
@@ -29,21 +31,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             @NonNull FilterChain filterChain
     ) throws ServletException, IOException {
         final String authHeader = request.getHeader("Authorization");
-        final String jwt;
-        final String username;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        jwt = authHeader.substring(7);
-        username = jwtService.extractUsername(jwt);
+        // One verification per request; a bad or expired token simply leaves the request anonymous
+        Optional<Claims> claims = jwtService.verify(authHeader.substring(7));
+        String username = claims.map(Claims::getSubject).orElse(null);
 
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-            
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+            // Current tokens carry the user id and role; only older ones still need the user row
+            AuthenticatedUser userDetails = AuthenticatedUser.fromClaims(claims.get());
+            if (userDetails == null) {
+                userDetails = (AuthenticatedUser) this.userDetailsService.loadUserByUsername(username);
+            }
+
+            // Tokens issued before the user's last credential change (or deletion) are refused here
+            if (jwtService.isTokenValid(claims.get(), userDetails)
+                    && tokenVersions.isCurrent(userDetails.getId(), AuthenticatedUser.tokenVersionOf(claims.get()))) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
@@ -0,0 +1,128 @@
+package com.gfgm.security;
+
+import com.gfgm.config.RateLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Token bucket limits per client and endpoint class. Runs right after JwtAuthenticationFilter, so signed-in
+// callers are limited by user id and everyone else by IP; logins are always limited by IP.
+// Reads outside search are not limited here, they are cheap and mostly answered from caches or with 304s.
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    enum EndpointClass {
+        AUTH, SEARCH, AI, WRITE
+    }
+
+    private final RateLimitProperties properties;
+    private final Map<EndpointClass, RateLimitProperties.Budget> budgets = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, ConcurrentHashMap<String, TokenBucket>> buckets = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Counter> rejections = new EnumMap<>(EndpointClass.class);
+
+    public RateLimitFilter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        budgets.put(EndpointClass.AUTH, properties.getAuth());
+        budgets.put(EndpointClass.SEARCH, properties.getSearch());
+        budgets.put(EndpointClass.AI, properties.getAi());
+        budgets.put(EndpointClass.WRITE, properties.getWrite());
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            ConcurrentHashMap<String, TokenBucket> classBuckets = new ConcurrentHashMap<>();
+            buckets.put(endpointClass, classBuckets);
+            String tag = endpointClass.name().toLowerCase();
+            Gauge.builder("ratelimit.buckets", classBuckets, Map::size).tag("class", tag).register(meterRegistry);
+            rejections.put(endpointClass, Counter.builder("ratelimit.rejected").tag("class", tag).register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        EndpointClass endpointClass = properties.isEnabled() ? classify(request) : null;
+        if (endpointClass == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long now = System.nanoTime();
+        String client = clientKey(request, endpointClass);
+        ConcurrentHashMap<String, TokenBucket> classBuckets = buckets.get(endpointClass);
+        TokenBucket bucket = classBuckets.get(client);
+        if (bucket == null) {
+            RateLimitProperties.Budget budget = budgets.get(endpointClass);
+            bucket = classBuckets.computeIfAbsent(client,
+                    key -> new TokenBucket(budget.getCapacity(), budget.getRefillPerMinute(), now));
+        }
+
+        long waitNanos = bucket.tryAcquire(now);
+        if (waitNanos > 0) {
+            rejections.get(endpointClass).increment();
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1)));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"Too many requests, please slow down\"}");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    // A full bucket behaves exactly like a missing one, so dropping it loses nothing
+    @Scheduled(fixedDelayString = "${rate-limit.eviction-interval:PT1M}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        for (ConcurrentHashMap<String, TokenBucket> classBuckets : buckets.values()) {
+            classBuckets.values().removeIf(bucket -> bucket.isIdle(now));
+        }
+    }
+
+    static EndpointClass classify(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String method = request.getMethod();
+        if (path.startsWith("/auth/")) {
+            return "POST".equals(method) ? EndpointClass.AUTH : null;
+        }
+        if (path.startsWith("/ai/")) {
+            return EndpointClass.AI;
+        }
+        if ("GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method)) {
+            if (path.startsWith("/recipes/search") || path.startsWith("/recipes/by-ingredients")
+                    || path.startsWith("/ingredients/suggest")) {
+                return EndpointClass.SEARCH;
+            }
+            return null;
+        }
+        return EndpointClass.WRITE;
+    }
+
+    private static String clientKey(HttpServletRequest request, EndpointClass endpointClass) {
+        if (endpointClass != EndpointClass.AUTH) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+                return "u:" + user.getId();
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
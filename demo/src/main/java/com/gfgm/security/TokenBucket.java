@@ -0,0 +1,36 @@
+package com.gfgm.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// A token bucket kept as a single "theoretical arrival time" (the GCRA formulation): the instant the bucket
+// would be full again. Taking a token is one CAS on that long, so buckets need no locks and no allocation.
+final class TokenBucket {
+    private final long nanosPerToken;
+    private final long burstTolerance;
+    private final AtomicLong fullAt;
+
+    TokenBucket(int capacity, int refillPerMinute, long now) {
+        this.nanosPerToken = 60_000_000_000L / Math.max(1, refillPerMinute);
+        this.burstTolerance = nanosPerToken * Math.max(0, capacity - 1);
+        this.fullAt = new AtomicLong(now);
+    }
+
+    // 0 when a token was taken, otherwise the nanoseconds until one is available
+    long tryAcquire(long now) {
+        while (true) {
+            long current = fullAt.get();
+            long earliest = current - burstTolerance;
+            if (now < earliest) {
+                return earliest - now;
+            }
+            long next = Math.max(current, now) + nanosPerToken;
+            if (fullAt.compareAndSet(current, next)) {
+                return 0L;
+            }
+        }
+    }
+
+    boolean isIdle(long now) {
+        return fullAt.get() <= now;
+    }
+}
@@ -0,0 +1,98 @@
+package com.gfgm.security;
+
+import com.gfgm.repository.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// Current token version of every user, so a JWT issued before a username, role or password change
+// (or before the account was deleted) is refused without a query. Versions live in an int array indexed
+// by user id, four bytes per user; ids past MAX_DENSE_ID fall back to a map.
+// Reads are lock free; writes only happen on the user mutation paths and are serialized.
+@Component
+public class TokenVersionRegistry implements SmartInitializingSingleton {
+    static final int DELETED = -1;
+    private static final int MAX_DENSE_ID = 1 << 24;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final UserRepository userRepository;
+    private final Map<Long, Integer> overflow = new ConcurrentHashMap<>();
+    private volatile AtomicIntegerArray versions = new AtomicIntegerArray(INITIAL_CAPACITY);
+    // Ids up to this one existed at warm-up; any of them missing from the table is a deleted user
+    private volatile long warmedUpTo;
+
+    public TokenVersionRegistry(UserRepository userRepository, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        Gauge.builder("auth.token.versions.capacity", this, registry -> registry.versions.length())
+                .description("Slots in the per-user token version array")
+                .register(meterRegistry);
+    }
+
+    // Runs before the web server starts, so no request is checked against an empty registry
+    @Override
+    public void afterSingletonsInstantiated() {
+        List<Object[]> rows = userRepository.findAllTokenVersions();
+        long maxId = 0;
+        for (Object[] row : rows) {
+            maxId = Math.max(maxId, (Long) row[0]);
+        }
+        synchronized (this) {
+            AtomicIntegerArray warmed = new AtomicIntegerArray((int) Math.max(INITIAL_CAPACITY, Math.min(maxId + 1, MAX_DENSE_ID)));
+            for (int id = 1; id < warmed.length() && id <= maxId; id++) {
+                warmed.set(id, DELETED);
+            }
+            overflow.clear();
+            versions = warmed;
+            for (Object[] row : rows) {
+                write((Long) row[0], (Integer) row[1]);
+            }
+            warmedUpTo = maxId;
+        }
+    }
+
+    // Tokens without a version claim count as version 0, which stays valid until the first revocation
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        return userId != null && versionOf(userId) == tokenVersion;
+    }
+
+    public synchronized void update(Long userId, int tokenVersion) {
+        write(userId, tokenVersion);
+    }
+
+    public synchronized void remove(Long userId) {
+        write(userId, DELETED);
+    }
+
+    int versionOf(long userId) {
+        if (userId >= MAX_DENSE_ID) {
+            return overflow.getOrDefault(userId, userId <= warmedUpTo ? DELETED : 0);
+        }
+        AtomicIntegerArray current = versions;
+        // Users created after warm-up start at version 0
+        return userId < current.length() ? current.get((int) userId) : 0;
+    }
+
+    private void write(long userId, int tokenVersion) {
+        if (userId >= MAX_DENSE_ID) {
+            overflow.put(userId, tokenVersion);
+            return;
+        }
+        AtomicIntegerArray current = versions;
+        if (userId >= current.length()) {
+            int capacity = (int) Math.min(MAX_DENSE_ID, Math.max(userId + 1, (long) current.length() * 2));
+            AtomicIntegerArray grown = new AtomicIntegerArray(capacity);
+            for (int i = 0; i < current.length(); i++) {
+                grown.set(i, current.get(i));
+            }
+            versions = grown;
+            current = grown;
+        }
+        current.set((int) userId, tokenVersion);
+    }
+}
@@ -5,6 +5,7 @@ import com.gfgm.dto.RegisterRequest;
 import com.gfgm.model.Role;
 import com.gfgm.model.User;
 import com.gfgm.repository.UserRepository;
+import com.gfgm.security.AuthenticatedUser;
 import com.gfgm.security.JwtService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -15,6 +16,9 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @Service
 @RequiredArgsConstructor
 public class AuthService {
@@ -51,19 +55,45 @@ public class AuthService {
         return authentication;
     }
 
+    // Loads the full entity; use getCurrentUserId or getCurrentUserReference when the user is not modified
     public User getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        Authentication authentication = currentAuthentication();
+        if (authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            return userRepository.findById(principal.getId())
+                    .orElseThrow(() -> new RuntimeException("Current user not found"));
+        }
         return userRepository.findByUsername(authentication.getName())
                 .orElseThrow(() -> new RuntimeException("Current user not found"));
     }
 
+    // Read from the token's principal without SQL; any other principal is looked up by name
+    public Long getCurrentUserId() {
+        Authentication authentication = currentAuthentication();
+        if (authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            return principal.getId();
+        }
+        return userRepository.findIdByUsername(authentication.getName())
+                .orElseThrow(() -> new RuntimeException("Current user not found"));
+    }
+
+    // An uninitialized proxy: enough to set as an owner or bind as a query parameter without loading the row
+    public User getCurrentUserReference() {
+        return userRepository.getReferenceById(getCurrentUserId());
+    }
+
     public String generateToken(User user) {
-        return jwtService.generateToken(
-            org.springframework.security.core.userdetails.User.builder()
-                .username(user.getUsername())
-                .password(user.getPassword())
-                .authorities("ROLE_" + user.getRole().name())
-                .build()
-        );
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(AuthenticatedUser.USER_ID_CLAIM, user.getId());
+        claims.put(AuthenticatedUser.ROLE_CLAIM, user.getRole().name());
+        claims.put(AuthenticatedUser.TOKEN_VERSION_CLAIM, user.getTokenVersion());
+        return jwtService.generateToken(claims, AuthenticatedUser.of(user));
+    }
+
+    private static Authentication currentAuthentication() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            throw new RuntimeException("Current user not found");
+        }
+        return authentication;
     }
-} 
\ No newline at end of file
+}
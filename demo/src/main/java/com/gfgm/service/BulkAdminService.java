@@ -0,0 +1,165 @@
+package com.gfgm.service;
+
+import com.gfgm.dto.RecipeBulkRequest;
+import com.gfgm.event.RecipesChangedEvent;
+import com.gfgm.event.UserChangedEvent;
+import com.gfgm.image.ImageStore;
+import com.gfgm.model.RecipeCategory;
+import com.gfgm.repository.IngredientRepository;
+import com.gfgm.repository.RecipeRepository;
+import com.gfgm.repository.UserRepository;
+import com.gfgm.security.TokenVersionRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+// Moderation sweeps as set-based statements: the matching ids are walked in keyset batches of batchSize,
+// and each batch is one transaction of UPDATE/DELETE ... WHERE id IN (...) statements, so no entity is loaded.
+// Indexes and caches hear about each batch through a single RecipesChangedEvent; images are released to ImageStore.
+@Slf4j
+@Service
+public class BulkAdminService {
+    private final RecipeRepository recipeRepository;
+    private final IngredientRepository ingredientRepository;
+    private final UserRepository userRepository;
+    private final AuthService authService;
+    private final TokenVersionRegistry tokenVersions;
+    private final ImageStore imageStore;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public BulkAdminService(RecipeRepository recipeRepository,
+                            IngredientRepository ingredientRepository,
+                            UserRepository userRepository,
+                            AuthService authService,
+                            TokenVersionRegistry tokenVersions,
+                            ImageStore imageStore,
+                            ApplicationEventPublisher eventPublisher,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${admin.bulk.batch-size:500}") int batchSize) {
+        this.recipeRepository = recipeRepository;
+        this.ingredientRepository = ingredientRepository;
+        this.userRepository = userRepository;
+        this.authService = authService;
+        this.tokenVersions = tokenVersions;
+        this.imageStore = imageStore;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    public int setPublished(RecipeBulkRequest selection, boolean published) {
+        LocalDateTime now = LocalDateTime.now();
+        return forEachRecipeBatch(selection, false, ids -> recipeRepository.updatePublishedByIdIn(ids, published, now));
+    }
+
+    public int recategorize(RecipeBulkRequest selection, RecipeCategory category) {
+        if (category == null) {
+            throw new IllegalArgumentException("category is required");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        return forEachRecipeBatch(selection, false, ids -> recipeRepository.updateCategoryByIdIn(ids, category, now));
+    }
+
+    public int deleteRecipes(RecipeBulkRequest selection) {
+        return forEachRecipeBatch(selection, true, this::deleteRecipeBatch);
+    }
+
+    // Deletes the users together with their recipes; returns the number of users deleted
+    public int deleteUsers(List<Long> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            throw new IllegalArgumentException("ids are required");
+        }
+        if (userIds.contains(authService.getCurrentUserId())) {
+            throw new IllegalArgumentException("You cannot delete your own account");
+        }
+
+        List<Long> ids = userIds.stream().distinct().sorted().toList();
+        int deleted = 0;
+        int recipes = 0;
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> batch = ids.subList(from, Math.min(from + batchSize, ids.size()));
+
+            long afterId = 0;
+            List<Long> recipeIds;
+            do {
+                recipeIds = recipeRepository.findIdsByUserIdIn(batch, afterId, PageRequest.ofSize(batchSize));
+                if (recipeIds.isEmpty()) {
+                    break;
+                }
+                recipes += runRecipeBatch(recipeIds, true, this::deleteRecipeBatch);
+                afterId = recipeIds.get(recipeIds.size() - 1);
+            } while (recipeIds.size() == batchSize);
+
+            Integer users = transactionTemplate.execute(status -> {
+                imageStore.release(userRepository.findProfilePicturesByIdIn(batch));
+                int count = userRepository.deleteByIdIn(batch);
+                batch.forEach(id -> eventPublisher.publishEvent(new UserChangedEvent(id, true)));
+                return count;
+            });
+            batch.forEach(tokenVersions::remove);
+            deleted += users != null ? users : 0;
+        }
+        log.info("Bulk deleted {} users and {} of their recipes", deleted, recipes);
+        return deleted;
+    }
+
+    private int forEachRecipeBatch(RecipeBulkRequest selection, boolean deleted, ToIntFunction<List<Long>> writer) {
+        if (selection == null || selection.hasIds() == selection.hasFilter()) {
+            throw new IllegalArgumentException("Select recipes either by ids or by filter criteria");
+        }
+
+        int affected = 0;
+        if (selection.hasIds()) {
+            List<Long> ids = selection.getIds().stream().distinct().sorted().toList();
+            for (int from = 0; from < ids.size(); from += batchSize) {
+                affected += runRecipeBatch(ids.subList(from, Math.min(from + batchSize, ids.size())), deleted, writer);
+            }
+            return affected;
+        }
+
+        if (selection.getOlderThanDays() != null && selection.getOlderThanDays() < 0) {
+            throw new IllegalArgumentException("olderThanDays must not be negative");
+        }
+        LocalDateTime createdBefore = selection.getOlderThanDays() != null
+                ? LocalDateTime.now().minusDays(selection.getOlderThanDays())
+                : null;
+        long afterId = 0;
+        List<Long> ids;
+        do {
+            ids = recipeRepository.findIdsMatching(afterId, selection.getUserId(), selection.getGeneratedByAi(),
+                    selection.getPublished(), selection.getCategory(), createdBefore, PageRequest.ofSize(batchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            affected += runRecipeBatch(ids, deleted, writer);
+            afterId = ids.get(ids.size() - 1);
+        } while (ids.size() == batchSize);
+        return affected;
+    }
+
+    private int runRecipeBatch(List<Long> ids, boolean deleted, ToIntFunction<List<Long>> writer) {
+        List<Long> batch = List.copyOf(ids);
+        Integer affected = transactionTemplate.execute(status -> {
+            int count = writer.applyAsInt(batch);
+            eventPublisher.publishEvent(new RecipesChangedEvent(batch, deleted));
+            return count;
+        });
+        return affected != null ? affected : 0;
+    }
+
+    private int deleteRecipeBatch(List<Long> ids) {
+        imageStore.release(recipeRepository.findImageUrlsByIdIn(ids));
+        ingredientRepository.deleteByRecipeIdIn(ids);
+        return recipeRepository.deleteByIdIn(ids);
+    }
+}
@@ -0,0 +1,61 @@
+package com.gfgm.service;
+
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+// Opaque position in a keyset listing: (createdAt, id) for listings, (score, id) for ranked search results
+@Getter
+public class RecipeCursor {
+    // Start of a listing: sorts after every real row
+    static final RecipeCursor FIRST_PAGE = new RecipeCursor(LocalDateTime.of(9999, 12, 31, 23, 59), null, Long.MAX_VALUE);
+
+    private final LocalDateTime createdAt;
+    private final Double score;
+    private final Long id;
+
+    private RecipeCursor(LocalDateTime createdAt, Double score, Long id) {
+        this.createdAt = createdAt;
+        this.score = score;
+        this.id = id;
+    }
+
+    public static RecipeCursor ofCreatedAt(LocalDateTime createdAt, Long id) {
+        return new RecipeCursor(createdAt, null, id);
+    }
+
+    public static RecipeCursor ofScore(double score, Long id) {
+        return new RecipeCursor(null, score, id);
+    }
+
+    public String encode() {
+        String raw = score != null
+                ? "s:" + Long.toHexString(Double.doubleToLongBits(score)) + ":" + id
+                : "t:" + createdAt + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // An empty cursor means "first page"
+    public static RecipeCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int idSeparator = raw.lastIndexOf(':');
+            Long id = Long.valueOf(raw.substring(idSeparator + 1));
+            String key = raw.substring(2, idSeparator);
+            if (raw.startsWith("s:")) {
+                return ofScore(Double.longBitsToDouble(Long.parseUnsignedLong(key, 16)), id);
+            }
+            if (raw.startsWith("t:")) {
+                return ofCreatedAt(LocalDateTime.parse(key), id);
+            }
+        } catch (RuntimeException e) {
+            // fall through
+        }
+        throw new IllegalArgumentException("Invalid cursor");
+    }
+}
@@ -1,60 +1,114 @@
 package com.gfgm.service;
 
+import com.gfgm.cache.RecipeDetailCache;
+import com.gfgm.dto.CursorPage;
+import com.gfgm.dto.ImageStatusResponse;
 import com.gfgm.dto.IngredientRequest;
+import com.gfgm.dto.NutritionFilter;
+import com.gfgm.dto.RecipeCardDTO;
 import com.gfgm.dto.RecipeRequest;
 import com.gfgm.dto.RecipeDTO;
+import com.gfgm.dto.RecipeVersion;
 import com.gfgm.dto.AdminRecipeUpdateRequest;
+import com.gfgm.event.RecipeChangedEvent;
+import com.gfgm.image.ImagePipeline;
+import com.gfgm.image.ImageStore;
+import com.gfgm.image.StagedImage;
+import com.gfgm.index.IngredientBitmapIndex;
+import com.gfgm.index.NutritionIndex;
+import com.gfgm.ingredient.IngredientNormalizer;
 import com.gfgm.mapper.RecipeMapper;
+import com.gfgm.model.ImageStatus;
 import com.gfgm.model.Ingredient;
 import com.gfgm.model.Recipe;
 import com.gfgm.model.RecipeCategory;
 import com.gfgm.model.User;
 import com.gfgm.repository.IngredientRepository;
 import com.gfgm.repository.RecipeRepository;
+import com.gfgm.search.RecipeSearchIndex;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.multipart.MultipartFile;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
 public class RecipeService {
+    // Same cap Spring Data puts on the size of a resolved Pageable
+    private static final int MAX_PAGE_SIZE = 2000;
+
     private final RecipeRepository recipeRepository;
     private final IngredientRepository ingredientRepository;
     private final AuthService authService;
-    private final String UPLOAD_DIR = "uploads/";
     private final RecipeMapper recipeMapper;
+    private final RecipeSearchIndex recipeSearchIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RecipeDetailCache recipeDetailCache;
+    private final IngredientBitmapIndex ingredientBitmapIndex;
+    private final NutritionIndex nutritionIndex;
+    private final ImagePipeline imagePipeline;
+    private final ImageStore imageStore;
+    private final IngredientNormalizer ingredientNormalizer;
 
     @Autowired
-    public RecipeService(RecipeRepository recipeRepository, RecipeMapper recipeMapper, IngredientRepository ingredientRepository, AuthService authService) {
+    public RecipeService(RecipeRepository recipeRepository, RecipeMapper recipeMapper, IngredientRepository ingredientRepository, AuthService authService,
+                         RecipeSearchIndex recipeSearchIndex, ApplicationEventPublisher eventPublisher, RecipeDetailCache recipeDetailCache,
+                         IngredientBitmapIndex ingredientBitmapIndex, NutritionIndex nutritionIndex, ImagePipeline imagePipeline,
+                         ImageStore imageStore, IngredientNormalizer ingredientNormalizer) {
         this.recipeRepository = recipeRepository;
         this.ingredientRepository = ingredientRepository;
         this.authService = authService;
         this.recipeMapper = recipeMapper;
+        this.recipeSearchIndex = recipeSearchIndex;
+        this.eventPublisher = eventPublisher;
+        this.recipeDetailCache = recipeDetailCache;
+        this.ingredientBitmapIndex = ingredientBitmapIndex;
+        this.nutritionIndex = nutritionIndex;
+        this.imagePipeline = imagePipeline;
+        this.imageStore = imageStore;
+        this.ingredientNormalizer = ingredientNormalizer;
     }
 
+    // Every recipe, drafts included; the admin listing
     public Page<RecipeDTO> getAllRecipes(Pageable pageable) {
-        Page<Recipe> recipePage = recipeRepository.findAll(pageable);
+        return toDTOPage(recipeRepository.findAll(pageable), pageable);
+    }
+
+    // The public listing shows published recipes only, like the search, ingredient and nutrition indexes
+    public Page<RecipeDTO> getPublishedRecipes(Pageable pageable) {
+        return toDTOPage(recipeRepository.findAllByIsPublishedTrue(pageable), pageable);
+    }
+
+    private Page<RecipeDTO> toDTOPage(Page<Recipe> recipePage, Pageable pageable) {
         List<RecipeDTO> recipeDTOs = recipeMapper.toDTOList(recipePage.getContent());
         return new PageImpl<>(recipeDTOs, pageable, recipePage.getTotalElements());
     }
 
+    // Served from RecipeDetailCache; entries are evicted after any write to the recipe or its author commits
     public Optional<RecipeDTO> getRecipeById(Long id) {
-        return recipeRepository.findById(id)
-                .map(recipeMapper::toDTO);
+        return recipeDetailCache.get(id, key -> recipeRepository.findDetailById(key).map(recipeMapper::toDTO));
+    }
+
+    // Timestamps only, for conditional GETs that should not load the recipe
+    public Optional<RecipeVersion> getRecipeVersion(Long id) {
+        return recipeRepository.findVersionById(id);
     }
 
     // Helper method for internal use that returns the Recipe entity directly
@@ -113,56 +167,228 @@ public class RecipeService {
             recipe.setSugar(request.getSugar());
         }
 
-        // Update ingredients if provided
-        if (request.getIngredients() != null) {
-            ingredientRepository.deleteAllByRecipe(recipe);
-            saveIngredients(recipe, request.getIngredients());
+        // Update ingredients if provided; they live in their own table, so touch the recipe to move its ETag
+        if (request.getIngredients() != null && syncIngredients(recipe, request.getIngredients())) {
+            recipe.setUpdatedAt(LocalDateTime.now());
         }
 
         Recipe savedRecipe = recipeRepository.save(recipe);
+        eventPublisher.publishEvent(new RecipeChangedEvent(savedRecipe.getId(), false));
         return recipeMapper.toDTO(savedRecipe);
     }
 
     public Page<RecipeDTO> searchRecipes(String query, Pageable pageable) {
-        Page<Recipe> recipePage = recipeRepository.searchRecipes(query, pageable);
-        List<RecipeDTO> recipeDTOs = recipeMapper.toDTOList(recipePage.getContent());
-        return new PageImpl<>(recipeDTOs, pageable, recipePage.getTotalElements());
+        RecipeSearchIndex.SearchResult result = recipeSearchIndex.search(query, pageable.getOffset(), pageable.getPageSize());
+        List<RecipeDTO> recipeDTOs = recipeMapper.toDTOList(findAllByIdInOrder(result.getRecipeIds()));
+        return new PageImpl<>(recipeDTOs, pageable, result.getTotalHits());
+    }
+
+    // Loads recipes for ids produced by an in-memory index, keeping the index's ordering
+    private List<Recipe> findAllByIdInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return inIdOrder(ids, recipeRepository.findAllByIdIn(ids), Recipe::getId);
+    }
+
+    private static <T> List<T> inIdOrder(List<Long> ids, List<T> rows, Function<T, Long> idOf) {
+        Map<Long, Integer> positions = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            positions.put(ids.get(i), i);
+        }
+        List<T> ordered = new ArrayList<>(rows);
+        ordered.sort(Comparator.comparing(row -> positions.get(idOf.apply(row))));
+        return ordered;
+    }
+
+    // Card views: a projection that never reads the TEXT columns, ingredients or author
+    public Page<RecipeCardDTO> getPublishedRecipeCards(Pageable pageable) {
+        return recipeRepository.findPublishedCards(pageable);
+    }
+
+    public Page<RecipeCardDTO> getAiGeneratedRecipeCards(Pageable pageable) {
+        return recipeRepository.findAiGeneratedCards(pageable);
+    }
+
+    public Page<RecipeCardDTO> searchRecipeCards(String query, Pageable pageable) {
+        RecipeSearchIndex.SearchResult result = recipeSearchIndex.search(query, pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(findCardsByIdInOrder(result.getRecipeIds()), pageable, result.getTotalHits());
+    }
+
+    private List<RecipeCardDTO> findCardsByIdInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return inIdOrder(ids, recipeRepository.findCardsByIdIn(ids), RecipeCardDTO::getId);
+    }
+
+    // Answered from IngredientBitmapIndex; only the resulting page is read from the database
+    public Page<RecipeDTO> findByIngredients(List<String> include, List<String> exclude, List<String> anyOf, Pageable pageable) {
+        IngredientBitmapIndex.Result result = ingredientBitmapIndex.find(include, exclude, anyOf, pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(recipeMapper.toDTOList(findAllByIdInOrder(result.getRecipeIds())), pageable, result.getTotalMatches());
+    }
+
+    public Page<RecipeCardDTO> findCardsByIngredients(List<String> include, List<String> exclude, List<String> anyOf, Pageable pageable) {
+        IngredientBitmapIndex.Result result = ingredientBitmapIndex.find(include, exclude, anyOf, pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(findCardsByIdInOrder(result.getRecipeIds()), pageable, result.getTotalMatches());
+    }
+
+    // Answered from NutritionIndex; sortBy is "createdAt" or a NutritionIndex.Column property such as "proteinPer100Kcal"
+    public Page<RecipeDTO> filterByNutrition(NutritionFilter filter, String sortBy, Sort.Direction direction, Pageable pageable) {
+        NutritionIndex.Result result = findByNutrition(filter, sortBy, direction, pageable);
+        return new PageImpl<>(recipeMapper.toDTOList(findAllByIdInOrder(result.getRecipeIds())), pageable, result.getTotalMatches());
+    }
+
+    public Page<RecipeCardDTO> filterCardsByNutrition(NutritionFilter filter, String sortBy, Sort.Direction direction, Pageable pageable) {
+        NutritionIndex.Result result = findByNutrition(filter, sortBy, direction, pageable);
+        return new PageImpl<>(findCardsByIdInOrder(result.getRecipeIds()), pageable, result.getTotalMatches());
+    }
+
+    private NutritionIndex.Result findByNutrition(NutritionFilter filter, String sortBy, Sort.Direction direction, Pageable pageable) {
+        NutritionIndex.Column sortColumn = sortBy == null || "createdAt".equals(sortBy) ? null : NutritionIndex.Column.fromProperty(sortBy);
+        return nutritionIndex.find(filter, sortColumn, direction.isDescending(), pageable.getOffset(), pageable.getPageSize());
     }
 
     public Page<Recipe> getUserRecipes(Pageable pageable) {
-        return recipeRepository.findAllByUser(authService.getCurrentUser(), pageable);
+        return recipeRepository.findAllByUser(authService.getCurrentUserReference(), pageable);
+    }
+
+    // Keyset (cursor) variants of the listings, newest first
+    public CursorPage<RecipeDTO> getPublishedRecipes(String cursor, int size, boolean withTotal) {
+        size = cursorPageSize(size);
+        RecipeCursor after = createdAtCursor(cursor);
+        List<Recipe> recipes = recipeRepository.findPublishedPageBefore(after.getCreatedAt(), after.getId(), PageRequest.ofSize(size + 1));
+        return toCursorPage(recipes, size, this::entityCursor, recipeMapper::toDTOList,
+                withTotal ? recipeRepository.countByIsPublishedTrue() : null);
+    }
+
+    public CursorPage<RecipeDTO> getAiGeneratedRecipes(String cursor, int size, boolean withTotal) {
+        size = cursorPageSize(size);
+        RecipeCursor after = createdAtCursor(cursor);
+        List<Recipe> recipes = recipeRepository.findAiGeneratedPageBefore(after.getCreatedAt(), after.getId(), PageRequest.ofSize(size + 1));
+        return toCursorPage(recipes, size, this::entityCursor, recipeMapper::toDTOList,
+                withTotal ? recipeRepository.countByGeneratedByAiTrue() : null);
+    }
+
+    public CursorPage<RecipeDTO> getUserRecipes(String cursor, int size, boolean withTotal) {
+        size = cursorPageSize(size);
+        User currentUser = authService.getCurrentUserReference();
+        RecipeCursor after = createdAtCursor(cursor);
+        List<Recipe> recipes = recipeRepository.findUserPageBefore(currentUser, after.getCreatedAt(), after.getId(), PageRequest.ofSize(size + 1));
+        return toCursorPage(recipes, size, this::entityCursor, recipeMapper::toDTOList,
+                withTotal ? recipeRepository.countByUser(currentUser) : null);
     }
 
+    public CursorPage<RecipeCardDTO> getPublishedRecipeCards(String cursor, int size, boolean withTotal) {
+        size = cursorPageSize(size);
+        RecipeCursor after = createdAtCursor(cursor);
+        List<RecipeCardDTO> cards = recipeRepository.findPublishedCardPageBefore(after.getCreatedAt(), after.getId(), PageRequest.ofSize(size + 1));
+        return toCursorPage(cards, size, this::cardCursor, Function.identity(),
+                withTotal ? recipeRepository.countByIsPublishedTrue() : null);
+    }
+
+    public CursorPage<RecipeCardDTO> getAiGeneratedRecipeCards(String cursor, int size, boolean withTotal) {
+        size = cursorPageSize(size);
+        RecipeCursor after = createdAtCursor(cursor);
+        List<RecipeCardDTO> cards = recipeRepository.findAiGeneratedCardPageBefore(after.getCreatedAt(), after.getId(), PageRequest.ofSize(size + 1));
+        return toCursorPage(cards, size, this::cardCursor, Function.identity(),
+                withTotal ? recipeRepository.countByGeneratedByAiTrue() : null);
+    }
+
+    // Search results are ordered by relevance, so the cursor seeks on (score, id) instead of (createdAt, id)
+    public CursorPage<RecipeDTO> searchRecipes(String query, String cursor, int size, boolean withTotal) {
+        return searchPage(query, cursor, size, withTotal, ids -> recipeMapper.toDTOList(findAllByIdInOrder(ids)));
+    }
+
+    public CursorPage<RecipeCardDTO> searchRecipeCards(String query, String cursor, int size, boolean withTotal) {
+        return searchPage(query, cursor, size, withTotal, this::findCardsByIdInOrder);
+    }
+
+    private <T> CursorPage<T> searchPage(String query, String cursor, int size, boolean withTotal,
+                                         Function<List<Long>, List<T>> loader) {
+        size = cursorPageSize(size);
+        RecipeCursor after = RecipeCursor.decode(cursor);
+        if (after != null && after.getScore() == null) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        RecipeSearchIndex.SearchResult result = after == null
+                ? recipeSearchIndex.searchAfter(query, null, null, size + 1)
+                : recipeSearchIndex.searchAfter(query, after.getScore(), after.getId(), size + 1);
+
+        CursorPage<RecipeSearchIndex.SearchHit> hits = toCursorPage(result.getHits(), size,
+                hit -> RecipeCursor.ofScore(hit.getScore(), hit.getRecipeId()), Function.identity(),
+                withTotal ? result.getTotalHits() : null);
+        List<Long> ids = hits.getContent().stream().map(RecipeSearchIndex.SearchHit::getRecipeId).toList();
+        return new CursorPage<>(loader.apply(ids), hits.getNextCursor(), hits.isHasNext(), hits.getTotalElements());
+    }
+
+    private RecipeCursor createdAtCursor(String cursor) {
+        RecipeCursor after = RecipeCursor.decode(cursor);
+        if (after == null) {
+            return RecipeCursor.FIRST_PAGE;
+        }
+        if (after.getCreatedAt() == null) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return after;
+    }
+
+    private RecipeCursor entityCursor(Recipe recipe) {
+        return RecipeCursor.ofCreatedAt(recipe.getCreatedAt(), recipe.getId());
+    }
+
+    private RecipeCursor cardCursor(RecipeCardDTO card) {
+        return RecipeCursor.ofCreatedAt(card.getCreatedAt(), card.getId());
+    }
+
+    // Rejects empty or negative pages like PageRequest does, and caps large ones
+    private static int cursorPageSize(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must not be less than one");
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    // Pages are fetched with one extra row to learn whether there is a next page without counting
+    private static <E, T> CursorPage<T> toCursorPage(List<E> rows, int size, Function<E, RecipeCursor> cursorOf,
+                                                     Function<List<E>, List<T>> mapper, Long totalElements) {
+        boolean hasNext = rows.size() > size;
+        List<E> page = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? cursorOf.apply(page.get(page.size() - 1)).encode() : null;
+        return new CursorPage<>(mapper.apply(page), nextCursor, hasNext, totalElements);
+    }
+
+    // The image, if any, has been staged by the controller; it is processed after the commit (see ImagePipeline)
     @Transactional
-    public Recipe createRecipe(RecipeRequest request, MultipartFile image) {
-        User currentUser = authService.getCurrentUser();
+    public Recipe createRecipe(RecipeRequest request, StagedImage image) {
+        User currentUser = authService.getCurrentUserReference();
         Recipe recipe = new Recipe();
         updateRecipeFromRequest(recipe, request);
         recipe.setUser(currentUser);
-
-        if (image != null && !image.isEmpty()) {
-            recipe.setImageUrl(saveImage(image));
-        }
+        setPendingImage(recipe, image);
 
         Recipe savedRecipe = recipeRepository.save(recipe);
         saveIngredients(savedRecipe, request.getIngredients());
+        processImage(savedRecipe.getId(), image);
+        eventPublisher.publishEvent(new RecipeChangedEvent(savedRecipe.getId(), false));
         return savedRecipe;
     }
 
     @Transactional
-    public Recipe updateRecipe(Long id, RecipeRequest request, MultipartFile image) {
+    public Recipe updateRecipe(Long id, RecipeRequest request, StagedImage image) {
         Recipe recipe = getRecipeEntityById(id);
         checkRecipeOwnership(recipe);
 
         updateRecipeFromRequest(recipe, request);
-        if (image != null && !image.isEmpty()) {
-            deleteOldImage(recipe.getImageUrl());
-            recipe.setImageUrl(saveImage(image));
-        }
+        setPendingImage(recipe, image);
+        processImage(recipe.getId(), image);
 
-        ingredientRepository.deleteAllByRecipe(recipe);
+        // Ingredients live in their own table; touch the recipe so its ETag moves when only they changed
+        if (syncIngredients(recipe, request.getIngredients())) {
+            recipe.setUpdatedAt(LocalDateTime.now());
+        }
         Recipe savedRecipe = recipeRepository.save(recipe);
-        saveIngredients(savedRecipe, request.getIngredients());
+        eventPublisher.publishEvent(new RecipeChangedEvent(savedRecipe.getId(), false));
         return savedRecipe;
     }
 
@@ -170,8 +396,9 @@ public class RecipeService {
     public void deleteRecipe(Long id) {
         Recipe recipe = getRecipeEntityById(id);
         checkRecipeOwnership(recipe);
-        deleteOldImage(recipe.getImageUrl());
+        imageStore.release(Collections.singletonList(recipe.getImageUrl()));
         recipeRepository.delete(recipe);
+        eventPublisher.publishEvent(new RecipeChangedEvent(id, true));
     }
 
     private void updateRecipeFromRequest(Recipe recipe, RecipeRequest request) {
@@ -194,49 +421,86 @@ public class RecipeService {
     }
 
     private void saveIngredients(Recipe recipe, List<IngredientRequest> ingredientRequests) {
-        List<Ingredient> ingredients = ingredientRequests.stream()
-                .map(req -> {
-                    Ingredient ingredient = new Ingredient();
-                    ingredient.setName(req.getName());
-                    ingredient.setAmount(req.getAmount());
-                    ingredient.setUnit(req.getUnit());
-                    ingredient.setRecipe(recipe);
-                    return ingredient;
-                })
-                .collect(Collectors.toList());
+        List<Ingredient> ingredients = recipeMapper.toIngredients(recipe, ingredientRequests);
+        ingredientNormalizer.assign(ingredients);
         ingredientRepository.saveAll(ingredients);
     }
 
-    private String saveImage(MultipartFile file) {
-        try {
-            Path uploadPath = Paths.get(UPLOAD_DIR);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
+    // Brings the recipe's ingredient rows in line with the request, position by position, writing only what differs:
+    // unchanged rows stay, changed ones are updated in place, and only the surplus is inserted or deleted (orphan
+    // removal). Returns whether anything changed.
+    private boolean syncIngredients(Recipe recipe, List<IngredientRequest> ingredientRequests) {
+        List<Ingredient> rows = recipe.getIngredients();
+        int kept = Math.min(rows.size(), ingredientRequests.size());
+        boolean changed = false;
+        for (int i = 0; i < kept; i++) {
+            Ingredient ingredient = rows.get(i);
+            IngredientRequest request = ingredientRequests.get(i);
+            // Rows from before positions were kept get theirs the first time the recipe is saved
+            ingredient.setPosition(i);
+            if (!isSameIngredient(ingredient, request)) {
+                ingredient.setName(request.getName());
+                ingredient.setAmount(request.getAmount());
+                ingredient.setUnit(request.getUnit());
+                ingredientNormalizer.assign(List.of(ingredient));
+                changed = true;
             }
+        }
+        if (rows.size() == ingredientRequests.size()) {
+            return changed;
+        }
+
+        List<Ingredient> added = recipeMapper.toIngredients(recipe, ingredientRequests.subList(kept, ingredientRequests.size()), kept);
+        ingredientNormalizer.assign(added);
+        for (int i = rows.size() - 1; i >= kept; i--) {
+            rows.remove(i);
+        }
+        rows.addAll(added);
+        return true;
+    }
+
+    private static boolean isSameIngredient(Ingredient ingredient, IngredientRequest request) {
+        return Objects.equals(ingredient.getName(), request.getName())
+                && Objects.equals(ingredient.getAmount(), request.getAmount())
+                && Objects.equals(ingredient.getUnit(), request.getUnit());
+    }
+
+    public Optional<ImageStatusResponse> getImageStatus(Long id) {
+        return recipeRepository.findImageStatusById(id);
+    }
+
+    private static void setPendingImage(Recipe recipe, StagedImage image) {
+        if (image != null) {
+            recipe.setPendingImage(image.getToken());
+            recipe.setImageStatus(ImageStatus.PENDING);
+        }
+    }
 
-            String filename = UUID.randomUUID() + "_" + file.getOriginalFilename();
-            Path filePath = uploadPath.resolve(filename);
-            Files.copy(file.getInputStream(), filePath);
-            return filename;
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to store file", e);
+    private void processImage(Long recipeId, StagedImage image) {
+        if (image != null) {
+            imagePipeline.process(image, (status, filename) -> completeImage(recipeId, image.getToken(), status, filename));
         }
     }
 
-    private void deleteOldImage(String imageUrl) {
-        if (imageUrl != null) {
-            try {
-                Path filePath = Paths.get(UPLOAD_DIR + imageUrl);
-                Files.deleteIfExists(filePath);
-            } catch (IOException e) {
-                // Log error but don't throw
+    // Runs on the image pipeline; when READY inside the ImageStore transaction, which also gives up the previous image
+    private boolean completeImage(Long recipeId, String token, ImageStatus status, String filename) {
+        LocalDateTime now = LocalDateTime.now();
+        if (status == ImageStatus.READY) {
+            Optional<String> previous = recipeRepository.findImageUrlById(recipeId);
+            if (recipeRepository.completePendingImage(recipeId, token, filename, now) == 0) {
+                return false;
             }
+            imageStore.acquire(filename);
+            imageStore.release(Collections.singletonList(previous.orElse(null)));
+        } else if (recipeRepository.failPendingImage(recipeId, token, now) == 0) {
+            return false;
         }
+        eventPublisher.publishEvent(new RecipeChangedEvent(recipeId, false));
+        return true;
     }
 
     private void checkRecipeOwnership(Recipe recipe) {
-        User currentUser = authService.getCurrentUser();
-        if (!recipe.getUser().getId().equals(currentUser.getId())) {
+        if (!recipe.getUser().getId().equals(authService.getCurrentUserId())) {
             throw new RuntimeException("You don't have permission to modify this recipe");
         }
     }
@@ -255,7 +519,7 @@ public class RecipeService {
 
     @Transactional
     public Recipe saveAiGeneratedRecipe(RecipeRequest request) {
-        User currentUser = authService.getCurrentUser();
+        User currentUser = authService.getCurrentUserReference();
         Recipe recipe = new Recipe();
         updateRecipeFromRequest(recipe, request);
         recipe.setUser(currentUser);
@@ -263,6 +527,7 @@ public class RecipeService {
 
         Recipe savedRecipe = recipeRepository.save(recipe);
         saveIngredients(savedRecipe, request.getIngredients());
+        eventPublisher.publishEvent(new RecipeChangedEvent(savedRecipe.getId(), false));
         return savedRecipe;
     }
 }
\ No newline at end of file
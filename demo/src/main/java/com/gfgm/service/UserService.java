@@ -1,24 +1,34 @@
 package com.gfgm.service;
 
 import com.gfgm.dto.*;
+import com.gfgm.event.RecipeChangedEvent;
+import com.gfgm.event.UserChangedEvent;
+import com.gfgm.image.ImagePipeline;
+import com.gfgm.image.ImageStore;
+import com.gfgm.image.StagedImage;
+import com.gfgm.model.ImageStatus;
 import com.gfgm.model.Role;
 import com.gfgm.model.User;
+import com.gfgm.repository.RecipeRepository;
 import com.gfgm.repository.UserRepository;
+import com.gfgm.security.TokenVersionRegistry;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.UUID;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -33,7 +43,20 @@ public class UserService {
     @Autowired
     private AuthService authService;
 
-    private final String UPLOAD_DIR = "uploads/";
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TokenVersionRegistry tokenVersions;
+
+    @Autowired
+    private ImagePipeline imagePipeline;
+
+    @Autowired
+    private ImageStore imageStore;
 
     public User registerUser(@Valid RegisterRequest request) {
         if (userRepository.existsByUsername(request.getUsername())) {
@@ -115,32 +138,29 @@ public class UserService {
             currentUser.setBio(request.getBio());
         }
         
+        if (usernameChanged) {
+            revokeTokens(currentUser);
+        }
+        
         User savedUser = userRepository.save(currentUser);
+        tokenVersions.update(savedUser.getId(), savedUser.getTokenVersion());
+        eventPublisher.publishEvent(new UserChangedEvent(savedUser.getId(), false));
         
         String token = null;
         if (usernameChanged) {
             token = authService.generateToken(savedUser);
         }
         
-        return UserUpdateResponse.builder()
-                .id(savedUser.getId())
-                .username(savedUser.getUsername())
-                .email(savedUser.getEmail())
-                .firstName(savedUser.getFirstName())
-                .lastName(savedUser.getLastName())
-                .profilePicture(savedUser.getProfilePicture())
-                .bio(savedUser.getBio())
-                .role(savedUser.getRole())
-                .token(token)
-                .build();
+        return toUpdateResponse(savedUser, token);
     }
 
     public AdminUserUpdateResponse adminUpdateUser(Long userId, AdminUserUpdateRequest request) {
-        User currentAdmin = authService.getCurrentUser();
+        Long currentAdminId = authService.getCurrentUserId();
         User userToUpdate = getUserById(userId);
 
-        boolean isSelfUpdate = userToUpdate.getId().equals(currentAdmin.getId());
+        boolean isSelfUpdate = userToUpdate.getId().equals(currentAdminId);
         boolean usernameChanged = false;
+        boolean credentialsChanged = false;
 
         // Check for username conflicts (excluding the user being updated)
         if (request.getUsername() != null && !request.getUsername().equals(userToUpdate.getUsername())) {
@@ -149,6 +169,7 @@ public class UserService {
             }
             userToUpdate.setUsername(request.getUsername());
             usernameChanged = true;
+            credentialsChanged = true;
         }
 
         // Check for email conflicts (excluding the user being updated)
@@ -165,16 +186,24 @@ public class UserService {
         if (request.getLastName() != null) {
             userToUpdate.setLastName(request.getLastName());
         }
-        if (request.getRole() != null) {
+        if (request.getRole() != null && request.getRole() != userToUpdate.getRole()) {
             userToUpdate.setRole(request.getRole());
+            credentialsChanged = true;
         }
 
         // Only update password if provided
         if (request.getPassword() != null && !request.getPassword().trim().isEmpty()) {
             userToUpdate.setPassword(passwordEncoder.encode(request.getPassword()));
+            credentialsChanged = true;
+        }
+
+        if (credentialsChanged) {
+            revokeTokens(userToUpdate);
         }
 
         User savedUser = userRepository.save(userToUpdate);
+        tokenVersions.update(savedUser.getId(), savedUser.getTokenVersion());
+        eventPublisher.publishEvent(new UserChangedEvent(savedUser.getId(), false));
 
         // Generate new token if admin updated their own username
         String newToken = null;
@@ -195,61 +224,81 @@ public class UserService {
                 .build();
     }
 
-    public User updateProfilePicture(MultipartFile file) {
+    // The picture has been staged by the controller; the current one is kept until the new one is processed
+    public User updateProfilePicture(StagedImage image) {
+        if (image == null) {
+            throw new IllegalArgumentException("An image is required");
+        }
         User currentUser = authService.getCurrentUser();
-        
-        try {
-            Path uploadPath = Paths.get(UPLOAD_DIR);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
+        currentUser.setPendingProfilePicture(image.getToken());
+        currentUser.setProfilePictureStatus(ImageStatus.PENDING);
+        User savedUser = userRepository.save(currentUser);
 
-            // Delete old profile picture if exists
-            if (currentUser.getProfilePicture() != null) {
-                Path oldFilePath = Paths.get(UPLOAD_DIR + currentUser.getProfilePicture());
-                Files.deleteIfExists(oldFilePath);
-            }
+        Long userId = savedUser.getId();
+        imagePipeline.process(image, (status, filename) -> completeProfilePicture(userId, image.getToken(), status, filename));
+        eventPublisher.publishEvent(new UserChangedEvent(userId, false));
+        return savedUser;
+    }
 
-            String filename = UUID.randomUUID() + "_" + file.getOriginalFilename();
-            Path filePath = uploadPath.resolve(filename);
-            Files.copy(file.getInputStream(), filePath);
-            
-            currentUser.setProfilePicture(filename);
-            return userRepository.save(currentUser);
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to store profile picture", e);
+    public ImageStatusResponse getProfilePictureStatus() {
+        return userRepository.findProfilePictureStatusById(authService.getCurrentUserId())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    // Runs on the image pipeline, like RecipeService.completeImage
+    private boolean completeProfilePicture(Long userId, String token, ImageStatus status, String filename) {
+        LocalDateTime now = LocalDateTime.now();
+        if (status == ImageStatus.READY) {
+            Optional<String> previous = userRepository.findProfilePictureById(userId);
+            if (userRepository.completePendingProfilePicture(userId, token, filename, now) == 0) {
+                return false;
+            }
+            imageStore.acquire(filename);
+            imageStore.release(Collections.singletonList(previous.orElse(null)));
+        } else if (userRepository.failPendingProfilePicture(userId, token, now) == 0) {
+            return false;
         }
+        eventPublisher.publishEvent(new UserChangedEvent(userId, false));
+        return true;
     }
 
     public User updateUserRole(Long userId, Role role) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
-        user.setRole(role);
-        return userRepository.save(user);
+        if (user.getRole() != role) {
+            user.setRole(role);
+            revokeTokens(user);
+        }
+        User savedUser = userRepository.save(user);
+        tokenVersions.update(savedUser.getId(), savedUser.getTokenVersion());
+        eventPublisher.publishEvent(new UserChangedEvent(savedUser.getId(), false));
+        return savedUser;
     }
 
+    @Transactional
     public void deleteUser(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        // Delete user's profile picture if exists
-        if (user.getProfilePicture() != null) {
-            try {
-                Path filePath = Paths.get(UPLOAD_DIR + user.getProfilePicture());
-                Files.deleteIfExists(filePath);
-            } catch (IOException e) {
-                // Log error but don't throw
-            }
-        }
-        
+
+        // The user's recipes go with it through the cascade, and so do their images' references
+        List<Long> recipeIds = recipeRepository.findIdsByUserId(userId);
+        List<String> images = new ArrayList<>(recipeIds.isEmpty() ? List.of() : recipeRepository.findImageUrlsByIdIn(recipeIds));
+        images.add(user.getProfilePicture());
+        imageStore.release(images);
         userRepository.delete(user);
+        // Tokens stay valid if the delete rolls back
+        afterCommit(() -> tokenVersions.remove(userId));
+        recipeIds.forEach(recipeId -> eventPublisher.publishEvent(new RecipeChangedEvent(recipeId, true)));
+        eventPublisher.publishEvent(new UserChangedEvent(userId, true));
     }
 
+    @Transactional
     public User updateUser(Long id, UserUpdateRequest request) {
         User user = getUserById(id);
         
-        if (request.getUsername() != null) {
+        if (request.getUsername() != null && !request.getUsername().equals(user.getUsername())) {
             user.setUsername(request.getUsername());
+            revokeTokens(user);
         }
         if (request.getEmail() != null) {
             user.setEmail(request.getEmail());
@@ -260,18 +309,27 @@ public class UserService {
         if (request.getLastName() != null) {
             user.setLastName(request.getLastName());
         }
-        if (request.getProfilePicture() != null) {
+        if (request.getProfilePicture() != null && !request.getProfilePicture().equals(user.getProfilePicture())) {
+            imageStore.acquire(request.getProfilePicture());
+            imageStore.release(Collections.singletonList(user.getProfilePicture()));
             user.setProfilePicture(request.getProfilePicture());
         }
         if (request.getBio() != null) {
             user.setBio(request.getBio());
         }
         
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        // A rollback must not leave the registry ahead of the stored version
+        Long userId = savedUser.getId();
+        int tokenVersion = savedUser.getTokenVersion();
+        afterCommit(() -> tokenVersions.update(userId, tokenVersion));
+        eventPublisher.publishEvent(new UserChangedEvent(savedUser.getId(), false));
+        return savedUser;
     }
 
 
-    public void updatePassword(UserPasswordUpdateRequest request) {
+    // Earlier tokens are revoked, so the answer carries a new one for the caller's session
+    public UserUpdateResponse updatePassword(UserPasswordUpdateRequest request) {
         User currentUser = authService.getCurrentUser();
         if (!passwordEncoder.matches(request.getCurrentPassword(), currentUser.getPassword())) {
             throw new IllegalArgumentException("Current password is incorrect");
@@ -280,6 +338,38 @@ public class UserService {
             throw new IllegalArgumentException("New password and confirmation do not match");
         }
         currentUser.setPassword(passwordEncoder.encode(request.getNewPassword()));
-        userRepository.save(currentUser);
+        revokeTokens(currentUser);
+        User savedUser = userRepository.save(currentUser);
+        tokenVersions.update(savedUser.getId(), savedUser.getTokenVersion());
+        return toUpdateResponse(savedUser, authService.generateToken(savedUser));
+    }
+
+    private static UserUpdateResponse toUpdateResponse(User user, String token) {
+        return UserUpdateResponse.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .email(user.getEmail())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .profilePicture(user.getProfilePicture())
+                .bio(user.getBio())
+                .role(user.getRole())
+                .token(token)
+                .build();
+    }
+
+    // Token registry writes of @Transactional methods wait for the commit
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // Invalidates every token issued so far; the caller saves the user and then publishes the new version
+    private void revokeTokens(User user) {
+        user.setTokenVersion(user.getTokenVersion() + 1);
     }
 } 
\ No newline at end of file
@@ -1,9 +1,12 @@
 package com.example.demo;
 
+import com.gfgm.GfgmApplication;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
 
-@SpringBootTest
+@SpringBootTest(classes = GfgmApplication.class)
+@ActiveProfiles("test")
 class DemoApplicationTests {
 
 	@Test
@@ -0,0 +1,267 @@
+package com.gfgm.ai;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gfgm.config.AiSidecarProperties;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs the client against a local stub of gfgm-ai/app.py
+class AiPredictionClientTest {
+    private static final Map<String, Object> REQUEST = Map.of("ingredients", List.of("rice", "chicken"));
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicReference<Handler> handler = new AtomicReference<>();
+    private final AtomicInteger batchCalls = new AtomicInteger();
+    private HttpServer server;
+
+    @FunctionalInterface
+    private interface Handler {
+        void handle(HttpExchange exchange) throws Exception;
+    }
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/predict", exchange -> {
+            calls.incrementAndGet();
+            try {
+                handler.get().handle(exchange);
+            } catch (Exception e) {
+                exchange.close();
+            }
+        });
+        server.createContext("/predict/batch", exchange -> {
+            batchCalls.incrementAndGet();
+            try {
+                // Answers each request with its first ingredient as the recipe name; "burnt" fails that one request
+                JsonNode requests = new ObjectMapper().readTree(exchange.getRequestBody()).get("requests");
+                if (requests.size() > PredictionBatcher.MAX_BATCH_SIZE) {
+                    respond(exchange, 400, "{\"error\":\"At most 64 requests per batch\"}");
+                    return;
+                }
+                StringBuilder results = new StringBuilder("{\"results\":[");
+                for (int i = 0; i < requests.size(); i++) {
+                    String first = requests.get(i).get("ingredients").get(0).asText();
+                    results.append(i == 0 ? "" : ",").append(first.equals("burnt")
+                            ? "{\"status\":500,\"body\":{\"error\":\"boom\"}}"
+                            : "{\"status\":200,\"body\":{\"name\":\"" + first + "\"}}");
+                }
+                respond(exchange, 200, results.append("]}").toString());
+            } catch (Exception e) {
+                exchange.close();
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+    }
+
+    @Test
+    void passesSidecarAnswersThrough() throws Exception {
+        handler.set(exchange -> respond(exchange, 200, "{\"name\":\"Chicken rice\"}"));
+        AiPredictionClient client = client(Duration.ofSeconds(5), 4, 2);
+
+        ResponseEntity<JsonNode> ok = client.predict(REQUEST).get(5, TimeUnit.SECONDS);
+        assertThat(ok.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(ok.getBody().get("name").asText()).isEqualTo("Chicken rice");
+
+        // A 4xx is the sidecar's answer, not a failure: it never opens the circuit
+        handler.set(exchange -> respond(exchange, 404, "{\"error\":\"Recipe not found for prediction\"}"));
+        for (int i = 0; i < 3; i++) {
+            assertThat(client.predict(REQUEST).get(5, TimeUnit.SECONDS).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        }
+        assertThat(client.circuitState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        client.shutdown();
+    }
+
+    @Test
+    void timeoutsAndServerErrorsOpenTheCircuitUntilAProbeSucceeds() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        handler.set(exchange -> {
+            release.await(5, TimeUnit.SECONDS);
+            respond(exchange, 200, "{}");
+        });
+        AtomicLong clock = new AtomicLong();
+        AiPredictionClient client = new AiPredictionClient(properties(Duration.ofMillis(200), 4, 2),
+                new ObjectMapper(), new SimpleMeterRegistry(), clock::get);
+
+        ResponseEntity<JsonNode> timedOut = client.predict(REQUEST).get(5, TimeUnit.SECONDS);
+        release.countDown();
+        assertThat(timedOut.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(timedOut.getBody().get("fallback").asBoolean()).isTrue();
+        assertThat(client.circuitState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        handler.set(exchange -> respond(exchange, 503, "{\"error\":\"Model not loaded\"}"));
+        assertThat(client.predict(REQUEST).get(5, TimeUnit.SECONDS).getStatusCode())
+                .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(client.circuitState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        // Open: refused with the fallback until the open period has passed on the clock
+        handler.set(exchange -> respond(exchange, 200, "{\"name\":\"Dal\"}"));
+        clock.addAndGet(Duration.ofMillis(499).toNanos());
+        ResponseEntity<JsonNode> open = client.predict(REQUEST).get(5, TimeUnit.SECONDS);
+        assertThat(open.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(open.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(client.circuitState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        // Then one probe goes through, and its success closes the circuit
+        clock.addAndGet(Duration.ofMillis(1).toNanos());
+        assertThat(client.predict(REQUEST).get(5, TimeUnit.SECONDS).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(client.circuitState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(client.predict(REQUEST).get(5, TimeUnit.SECONDS).getStatusCode()).isEqualTo(HttpStatus.OK);
+        client.shutdown();
+    }
+
+    @Test
+    void callsBeyondTheInFlightLimitGetTheFallbackImmediately() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        handler.set(exchange -> {
+            release.await(5, TimeUnit.SECONDS);
+            respond(exchange, 200, "{\"name\":\"Soup\"}");
+        });
+        AiPredictionClient client = client(Duration.ofSeconds(5), 1, 2);
+
+        CompletableFuture<ResponseEntity<JsonNode>> first = client.predict(REQUEST);
+        ResponseEntity<JsonNode> second = client.predict(REQUEST).get(1, TimeUnit.SECONDS);
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(client.predict(REQUEST).get(5, TimeUnit.SECONDS).getStatusCode()).isEqualTo(HttpStatus.OK);
+        client.shutdown();
+    }
+
+    @Test
+    void concurrentPredictionsGoOutAsOneBatchAndComeBackToTheirCallers() throws Exception {
+        handler.set(exchange -> respond(exchange, 200, "{\"name\":\"alone\"}"));
+        AiSidecarProperties properties = properties(Duration.ofSeconds(5), 4, 2);
+        properties.setBatchSize(3);
+        properties.setBatchDelay(Duration.ofMillis(50));
+        AiPredictionClient client = new AiPredictionClient(properties, new ObjectMapper(), new SimpleMeterRegistry());
+        PredictionBatcher batcher = new PredictionBatcher(client, properties);
+
+        // A full batch goes at once
+        CompletableFuture<ResponseEntity<JsonNode>> rice = batcher.predict(List.of("rice"));
+        CompletableFuture<ResponseEntity<JsonNode>> burnt = batcher.predict(List.of("burnt"));
+        CompletableFuture<ResponseEntity<JsonNode>> dal = batcher.predict(List.of("dal", "rice"));
+        assertThat(rice.get(5, TimeUnit.SECONDS).getBody().get("name").asText()).isEqualTo("rice");
+        assertThat(dal.get(5, TimeUnit.SECONDS).getBody().get("name").asText()).isEqualTo("dal");
+        assertThat(burnt.get(5, TimeUnit.SECONDS).getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(batchCalls.get()).isEqualTo(1);
+
+        // Two that meet within the delay share a call; one on its own uses /predict after the delay
+        CompletableFuture<ResponseEntity<JsonNode>> soup = batcher.predict(List.of("soup"));
+        CompletableFuture<ResponseEntity<JsonNode>> stew = batcher.predict(List.of("stew"));
+        assertThat(soup.get(5, TimeUnit.SECONDS).getBody().get("name").asText()).isEqualTo("soup");
+        assertThat(stew.get(5, TimeUnit.SECONDS).getBody().get("name").asText()).isEqualTo("stew");
+        assertThat(batchCalls.get()).isEqualTo(2);
+        assertThat(batcher.predict(List.of("toast")).get(5, TimeUnit.SECONDS).getBody().get("name").asText())
+                .isEqualTo("alone");
+        assertThat(batchCalls.get()).isEqualTo(2);
+        assertThat(calls.get()).isEqualTo(1);
+
+        batcher.shutdown();
+        client.shutdown();
+    }
+
+    @Test
+    void rejectedBatchesDoNotOpenTheCircuit() throws Exception {
+        handler.set(exchange -> respond(exchange, 200, "{\"name\":\"Chicken rice\"}"));
+        AiPredictionClient client = client(Duration.ofSeconds(5), 4, 2);
+        List<Map<String, Object>> oversized = Collections.nCopies(PredictionBatcher.MAX_BATCH_SIZE + 1, REQUEST);
+
+        for (int i = 0; i < 3; i++) {
+            List<ResponseEntity<JsonNode>> rejected = client.predictBatch(oversized).get(5, TimeUnit.SECONDS);
+            assertThat(rejected).hasSize(oversized.size())
+                    .allSatisfy(result -> assertThat(result.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+        }
+        assertThat(client.circuitState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(client.predict(REQUEST).get(5, TimeUnit.SECONDS).getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        // 5xx answers do count
+        handler.set(exchange -> respond(exchange, 503, "{\"error\":\"Model not loaded\"}"));
+        for (int i = 0; i < 2; i++) {
+            client.predict(REQUEST).get(5, TimeUnit.SECONDS);
+        }
+        assertThat(client.circuitState()).isEqualTo(CircuitBreaker.State.OPEN);
+        client.shutdown();
+    }
+
+    @Test
+    void batchesNeverExceedTheSidecarLimit() throws Exception {
+        AiSidecarProperties properties = properties(Duration.ofSeconds(5), 4, 2);
+        properties.setBatchSize(1000);
+        properties.setBatchDelay(Duration.ofSeconds(30));
+        AiPredictionClient client = new AiPredictionClient(properties, new ObjectMapper(), new SimpleMeterRegistry());
+        PredictionBatcher batcher = new PredictionBatcher(client, properties);
+
+        List<CompletableFuture<ResponseEntity<JsonNode>>> results = new ArrayList<>();
+        for (int i = 0; i < PredictionBatcher.MAX_BATCH_SIZE; i++) {
+            results.add(batcher.predict(List.of("rice " + i)));
+        }
+        // The 64th filled the batch, so nothing waits for the delay
+        for (int i = 0; i < results.size(); i++) {
+            assertThat(results.get(i).get(5, TimeUnit.SECONDS).getBody().get("name").asText()).isEqualTo("rice " + i);
+        }
+        assertThat(batchCalls.get()).isEqualTo(1);
+
+        batcher.shutdown();
+        client.shutdown();
+    }
+
+    private AiPredictionClient client(Duration requestTimeout, int maxInFlight, int failureThreshold) {
+        return new AiPredictionClient(properties(requestTimeout, maxInFlight, failureThreshold),
+                new ObjectMapper(), new SimpleMeterRegistry());
+    }
+
+    private AiSidecarProperties properties(Duration requestTimeout, int maxInFlight, int failureThreshold) {
+        AiSidecarProperties properties = new AiSidecarProperties();
+        properties.setBaseUrl("http://127.0.0.1:" + server.getAddress().getPort());
+        properties.setConnectTimeout(Duration.ofSeconds(1));
+        properties.setRequestTimeout(requestTimeout);
+        properties.setMaxInFlight(maxInFlight);
+        properties.setFailureThreshold(failureThreshold);
+        properties.setOpenDuration(Duration.ofMillis(500));
+        return properties;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
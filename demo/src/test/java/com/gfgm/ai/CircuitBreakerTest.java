@@ -0,0 +1,73 @@
+package com.gfgm.ai;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+    private static final long OPEN_NANOS = 1_000;
+
+    private final CircuitBreaker breaker = new CircuitBreaker(2, OPEN_NANOS);
+
+    @Test
+    void opensAfterConsecutiveFailuresAndRefusesUntilTheOpenPeriodEnds() {
+        assertThat(breaker.tryAcquire(0)).isTrue();
+        breaker.onFailure(10);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        breaker.onSuccess();
+        breaker.onFailure(20);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        breaker.onFailure(30);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        assertThat(breaker.tryAcquire(30 + OPEN_NANOS - 1)).isFalse();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void aSuccessfulProbeClosesTheCircuit() {
+        open(0);
+
+        assertThat(breaker.tryAcquire(OPEN_NANOS)).isTrue();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        // Only the probe goes through while it is out
+        assertThat(breaker.tryAcquire(OPEN_NANOS + 1)).isFalse();
+
+        breaker.onSuccess();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire(OPEN_NANOS + 2)).isTrue();
+    }
+
+    @Test
+    void aFailedProbeOpensTheCircuitForAnotherPeriod() {
+        open(0);
+        assertThat(breaker.tryAcquire(OPEN_NANOS)).isTrue();
+
+        breaker.onFailure(OPEN_NANOS + 5);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire(2 * OPEN_NANOS)).isFalse();
+        assertThat(breaker.tryAcquire(2 * OPEN_NANOS + 5)).isTrue();
+    }
+
+    @Test
+    void anIgnoredProbeLetsTheNextCallProbe() {
+        open(0);
+        assertThat(breaker.tryAcquire(OPEN_NANOS)).isTrue();
+
+        breaker.onIgnored();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire(OPEN_NANOS + 1)).isTrue();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+
+        // Ignored outcomes leave a closed circuit alone
+        breaker.onSuccess();
+        breaker.onIgnored();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    private void open(long now) {
+        breaker.onFailure(now);
+        breaker.onFailure(now);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+}
@@ -0,0 +1,54 @@
+package com.gfgm.ai;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gfgm.index.SimilarRecipeIndex;
+import com.gfgm.model.Ingredient;
+import com.gfgm.model.Recipe;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NearestRecipeFallbackTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimilarRecipeIndex index = new SimilarRecipeIndex("", objectMapper);
+    private final NearestRecipeFallback fallback = new NearestRecipeFallback(index, objectMapper, new SimpleMeterRegistry());
+
+    @Test
+    void answersInTheSidecarRecipeShape() {
+        Recipe recipe = new Recipe();
+        recipe.setId(7L);
+        recipe.setTitle("Chicken rice");
+        recipe.setInstructions("Cook the rice.\r\n\n  Fry the chicken with garlic.  \n");
+        for (String name : List.of("chicken breast", "brown rice", "garlic")) {
+            Ingredient ingredient = new Ingredient();
+            ingredient.setName(name);
+            ingredient.setRecipe(recipe);
+            recipe.getIngredients().add(ingredient);
+        }
+        index.index(recipe);
+
+        ResponseEntity<JsonNode> response = fallback.orNearestRecipe(List.of("garlic", "chicken breast"),
+                ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JsonNode body = response.getBody();
+        assertThat(body.path("name").asText()).isEqualTo("Chicken rice");
+        assertThat(body.path("ingredients")).hasSize(3);
+        assertThat(body.path("steps").isArray()).isTrue();
+        assertThat(body.path("steps")).extracting(JsonNode::asText)
+                .containsExactly("Cook the rice.", "Fry the chicken with garlic.");
+        assertThat(body.path("fallback").asBoolean()).isTrue();
+    }
+
+    @Test
+    void keepsTheUnavailableAnswerWhenNothingIsSimilar() {
+        ResponseEntity<JsonNode> unavailable = ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        assertThat(fallback.orNearestRecipe(List.of("tofu"), unavailable)).isSameAs(unavailable);
+    }
+}
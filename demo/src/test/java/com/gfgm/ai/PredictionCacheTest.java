@@ -0,0 +1,90 @@
+package com.gfgm.ai;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gfgm.config.AiSidecarProperties;
+import com.gfgm.ingredient.IngredientNormalizer;
+import com.gfgm.ingredient.IngredientVocabulary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PredictionCacheTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @TempDir
+    Path dir;
+
+    private final List<Object> upstreamCalls = new CopyOnWriteArrayList<>();
+    private final List<CompletableFuture<ResponseEntity<JsonNode>>> pending = new ArrayList<>();
+    private PredictionCache predictionCache;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path vocabulary = dir.resolve("ingredients.json");
+        Files.writeString(vocabulary, "[\"chicken\", \"garlic\", \"rice\", \"soy sauce\"]");
+        AiSidecarProperties properties = new AiSidecarProperties();
+        AiPredictionClient client = new AiPredictionClient(properties, MAPPER, new SimpleMeterRegistry());
+        PredictionBatcher batcher = new PredictionBatcher(client, properties) {
+            @Override
+            public CompletableFuture<ResponseEntity<JsonNode>> predict(List<String> ingredients) {
+                upstreamCalls.add(ingredients);
+                CompletableFuture<ResponseEntity<JsonNode>> future = new CompletableFuture<>();
+                pending.add(future);
+                return future;
+            }
+        };
+        IngredientVocabulary ingredientVocabulary = new IngredientVocabulary(vocabulary.toString(), MAPPER);
+        predictionCache = new PredictionCache(batcher, ingredientVocabulary,
+                new IngredientNormalizer(ingredientVocabulary, 0.7, 100, new SimpleMeterRegistry()),
+                100, Duration.ofMinutes(5), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void sameSetInAnyOrderOrCasingIsOneUpstreamCall() throws Exception {
+        CompletableFuture<ResponseEntity<JsonNode>> first = predictionCache.predict(List.of("Rice", " chicken", "dragonfruit"));
+        CompletableFuture<ResponseEntity<JsonNode>> concurrent = predictionCache.predict(List.of("CHICKEN", "rice", "rice "));
+        assertThat(upstreamCalls).containsExactly(List.of("chicken", "rice"));
+
+        pending.get(0).complete(ResponseEntity.ok(MAPPER.readTree("{\"name\":\"Chicken rice\"}")));
+        assertThat(first.get().getBody().get("name").asText()).isEqualTo("Chicken rice");
+        assertThat(concurrent.get()).isSameAs(first.get());
+
+        assertThat(predictionCache.predict(List.of("rice", "chicken")).get()).isSameAs(first.get());
+        assertThat(upstreamCalls).hasSize(1);
+
+        predictionCache.predict(List.of("rice", "garlic"));
+        assertThat(upstreamCalls).hasSize(2);
+    }
+
+    @Test
+    void fallbacksAreNotCached() throws Exception {
+        CompletableFuture<ResponseEntity<JsonNode>> unavailable = predictionCache.predict(List.of("garlic"));
+        pending.get(0).complete(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(MAPPER.createObjectNode()));
+        assertThat(unavailable.get().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+
+        predictionCache.predict(List.of("garlic"));
+        assertThat(upstreamCalls).hasSize(2);
+    }
+
+    @Test
+    void blankIngredientListsAreRejected() {
+        assertThatThrownBy(() -> predictionCache.predict(List.of(" ", "")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(upstreamCalls).isEmpty();
+    }
+}
@@ -0,0 +1,246 @@
+package com.gfgm.controller;
+
+import com.gfgm.dto.UserUpdateRequest;
+import com.gfgm.model.Ingredient;
+import com.gfgm.model.Recipe;
+import com.gfgm.model.RecipeCategory;
+import com.gfgm.model.Role;
+import com.gfgm.model.User;
+import com.gfgm.repository.IngredientRepository;
+import com.gfgm.repository.RecipeRepository;
+import com.gfgm.repository.UserRepository;
+import com.gfgm.security.TokenVersionRegistry;
+import com.gfgm.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"admin.bulk.batch-size=10", "file.upload-dir=target/test-uploads/"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(username = "admin", roles = "ADMIN")
+class AdminBulkOperationsTest {
+    private static final int SPAM_RECIPES = 25;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TokenVersionRegistry tokenVersions;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User spammer;
+    private Recipe keeper;
+
+    @BeforeEach
+    void setUp() {
+        recipeRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User admin = user("admin");
+        admin.setRole(Role.ADMIN);
+        userRepository.save(admin);
+        spammer = userRepository.save(user("spammer"));
+        User cook = userRepository.save(user("cook"));
+
+        for (int i = 0; i < SPAM_RECIPES; i++) {
+            recipeRepository.save(recipe("Spam " + i, spammer, i % 5 == 0 ? "spam-" + i + ".jpg" : null));
+        }
+        keeper = recipeRepository.save(recipe("Lentil soup", cook, null));
+    }
+
+    @Test
+    void unpublishesByFilterInBoundedBatches() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(post("/admin/recipes/bulk/unpublish")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userId\": " + spammer.getId() + "}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(SPAM_RECIPES));
+
+        // 3 batches of id page, UPDATE and index reload; no per-recipe statements
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(10);
+        // only the index reload loads entities, once each
+        assertThat(statistics.getEntityLoadCount()).isLessThanOrEqualTo(SPAM_RECIPES * 2L);
+        assertThat(recipeRepository.findAll()).allSatisfy(recipe ->
+                assertThat(recipe.isPublished()).isEqualTo(recipe.getId().equals(keeper.getId())));
+    }
+
+    @Test
+    void recategorizesAnIdList() throws Exception {
+        mockMvc.perform(post("/admin/recipes/bulk/recategorize")
+                        .param("category", "SNACK")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": [" + keeper.getId() + ", " + keeper.getId() + "]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(1));
+
+        assertThat(recipeRepository.findById(keeper.getId()).orElseThrow().getCategory()).isEqualTo(RecipeCategory.SNACK);
+    }
+
+    @Test
+    void deletesMatchingRecipesAndTheirImagesInTheBackground() throws Exception {
+        Path image = Paths.get("target/test-uploads/spam-0.jpg");
+        Files.createDirectories(image.getParent());
+        Files.writeString(image, "jpeg");
+
+        mockMvc.perform(post("/admin/recipes/bulk/delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"generatedByAi\": true, \"olderThanDays\": 0}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(SPAM_RECIPES));
+
+        assertThat(recipeRepository.findAll()).extracting(Recipe::getId).containsExactly(keeper.getId());
+        assertThat(ingredientRepository.count()).isEqualTo(1);
+        for (int attempt = 0; attempt < 50 && Files.exists(image); attempt++) {
+            Thread.sleep(20);
+        }
+        assertThat(image).doesNotExist();
+    }
+
+    @Test
+    void deletesUsersWithEverythingTheyOwn() throws Exception {
+        mockMvc.perform(post("/admin/users/bulk/delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": [" + spammer.getId() + "]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(1));
+
+        assertThat(userRepository.findById(spammer.getId())).isEmpty();
+        assertThat(recipeRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void deletedUsersTokensAreRevokedOnlyOnCommit() throws Exception {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            userService.deleteUser(spammer.getId());
+            status.setRollbackOnly();
+        });
+        assertThat(userRepository.findById(spammer.getId())).isPresent();
+        assertThat(tokenVersions.isCurrent(spammer.getId(), spammer.getTokenVersion())).isTrue();
+
+        mockMvc.perform(delete("/admin/users/" + spammer.getId()))
+                .andExpect(status().isNoContent());
+        assertThat(tokenVersions.isCurrent(spammer.getId(), spammer.getTokenVersion())).isFalse();
+    }
+
+    @Test
+    void renamedUsersTokenVersionIsPublishedOnlyOnCommit() {
+        UserUpdateRequest rename = new UserUpdateRequest();
+        rename.setUsername("renamed");
+        int version = spammer.getTokenVersion();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            userService.updateUser(spammer.getId(), rename);
+            status.setRollbackOnly();
+        });
+        assertThat(userRepository.findById(spammer.getId()).orElseThrow().getUsername()).isEqualTo("spammer");
+        assertThat(tokenVersions.isCurrent(spammer.getId(), version)).isTrue();
+
+        userService.updateUser(spammer.getId(), rename);
+        assertThat(tokenVersions.isCurrent(spammer.getId(), version)).isFalse();
+        assertThat(tokenVersions.isCurrent(spammer.getId(), version + 1)).isTrue();
+    }
+
+    @Test
+    void selectionNeedsIdsOrAFilterButNotBoth() throws Exception {
+        mockMvc.perform(post("/admin/recipes/bulk/delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/admin/recipes/bulk/delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": [1], \"published\": true}"))
+                .andExpect(status().isBadRequest());
+        assertThat(recipeRepository.count()).isEqualTo(SPAM_RECIPES + 1);
+    }
+
+    @Test
+    void indexRebuildBackfillsVocabularyIds() throws Exception {
+        Recipe pantry = recipe("Garlic chicken", keeper.getUser(), null);
+        pantry.getIngredients().get(0).setVocabularyId(99);
+        for (String name : new String[]{"Garlic", "chiken breast"}) {
+            Ingredient ingredient = new Ingredient();
+            ingredient.setName(name);
+            ingredient.setAmount(1.0);
+            ingredient.setUnit("unit");
+            ingredient.setRecipe(pantry);
+            pantry.getIngredients().add(ingredient);
+        }
+        recipeRepository.save(pantry);
+
+        mockMvc.perform(post("/admin/indexes/rebuild"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.backfilledIngredients").value(3));
+
+        // test-ingredients.json: garlic is 0, chicken breast 1, salt is not in it
+        assertThat(ingredientRepository.findAll())
+                .filteredOn(ingredient -> ingredient.getRecipe().getId().equals(pantry.getId()))
+                .extracting(Ingredient::getName, Ingredient::getVocabularyId)
+                .containsExactlyInAnyOrder(tuple("salt", null), tuple("Garlic", 0), tuple("chiken breast", 1));
+    }
+
+    private static User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("secret");
+        user.setEmail(username + "@example.com");
+        return user;
+    }
+
+    private static Recipe recipe(String title, User user, String imageUrl) {
+        Recipe recipe = new Recipe();
+        recipe.setTitle(title);
+        recipe.setUser(user);
+        recipe.setImageUrl(imageUrl);
+        recipe.setGeneratedByAi(user.getUsername().equals("spammer"));
+        Ingredient ingredient = new Ingredient();
+        ingredient.setName("salt");
+        ingredient.setAmount(1.0);
+        ingredient.setUnit("g");
+        ingredient.setRecipe(recipe);
+        recipe.getIngredients().add(ingredient);
+        return recipe;
+    }
+}
@@ -0,0 +1,207 @@
+package com.gfgm.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gfgm.dto.IngredientRequest;
+import com.gfgm.dto.RecipeRequest;
+import com.gfgm.model.RecipeCategory;
+import com.gfgm.model.User;
+import com.gfgm.repository.RecipeRepository;
+import com.gfgm.repository.StoredImageRepository;
+import com.gfgm.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.anonymous;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"file.upload-dir=target/test-uploads/", "images.staging-dir=target/test-staging"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(username = "cook")
+class ImageUploadPipelineTest {
+    private static final Path UPLOADS = Paths.get("target/test-uploads");
+    private static final Path STAGING = Paths.get("target/test-staging");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private StoredImageRepository storedImageRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Files.createDirectories(STAGING);
+        recipeRepository.deleteAll();
+        userRepository.deleteAll();
+        storedImageRepository.deleteAll();
+
+        User user = new User();
+        user.setUsername("cook");
+        user.setPassword("secret");
+        user.setEmail("cook@example.com");
+        userRepository.save(user);
+    }
+
+    @Test
+    void recipeCommitsFirstAndTheImageIsReencodedWithoutMetadata() throws Exception {
+        JsonNode created = objectMapper.readTree(write(HttpMethod.POST, "/recipes", jpegWithExif())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imageStatus").value("PENDING"))
+                .andReturn().getResponse().getContentAsString());
+        long id = created.get("id").asLong();
+
+        JsonNode ready = awaitImage(id);
+        assertThat(ready.get("status").asText()).isEqualTo("READY");
+        String imageUrl = ready.get("imageUrl").asText();
+        assertThat(imageUrl).endsWith(".jpg");
+        byte[] stored = Files.readAllBytes(UPLOADS.resolve(imageUrl));
+        assertThat(ImageIO.read(UPLOADS.resolve(imageUrl).toFile()).getWidth()).isEqualTo(40);
+        assertThat(new String(stored, StandardCharsets.ISO_8859_1)).doesNotContain("Exif", "secret-location");
+
+        // A replacement becomes visible only once processed, and then the old file goes
+        write(HttpMethod.PUT, "/recipes/" + id, png()).andExpect(status().isOk());
+        JsonNode replaced = awaitImage(id);
+        assertThat(replaced.get("imageUrl").asText()).endsWith(".png");
+        for (int attempt = 0; attempt < 50 && Files.exists(UPLOADS.resolve(imageUrl)); attempt++) {
+            Thread.sleep(20);
+        }
+        assertThat(UPLOADS.resolve(imageUrl)).doesNotExist();
+    }
+
+    @Test
+    void identicalUploadsShareOneFileUntilTheLastRecipeGoes() throws Exception {
+        long first = objectMapper.readTree(write(HttpMethod.POST, "/recipes", png())
+                .andReturn().getResponse().getContentAsString()).get("id").asLong();
+        long second = objectMapper.readTree(write(HttpMethod.POST, "/recipes", png())
+                .andReturn().getResponse().getContentAsString()).get("id").asLong();
+        String name = awaitImage(first).get("imageUrl").asText();
+        assertThat(awaitImage(second).get("imageUrl").asText()).isEqualTo(name);
+
+        mockMvc.perform(delete("/recipes/" + first)).andExpect(status().isNoContent());
+        Thread.sleep(100);
+        assertThat(UPLOADS.resolve(name)).exists();
+
+        mockMvc.perform(delete("/recipes/" + second)).andExpect(status().isNoContent());
+        for (int attempt = 0; attempt < 50 && Files.exists(UPLOADS.resolve(name)); attempt++) {
+            Thread.sleep(20);
+        }
+        assertThat(UPLOADS.resolve(name)).doesNotExist();
+    }
+
+    @Test
+    void uploadsThatAreNotImagesAreRefusedBeforeAnythingIsSaved() throws Exception {
+        MockMultipartFile text = new MockMultipartFile("image", "notes.jpg", MediaType.IMAGE_JPEG_VALUE,
+                "not really a picture".getBytes(StandardCharsets.UTF_8));
+        write(HttpMethod.POST, "/recipes", text).andExpect(status().isBadRequest());
+
+        assertThat(recipeRepository.count()).isZero();
+        assertThat(Files.list(STAGING).toList()).isEmpty();
+    }
+
+    @Test
+    void profilePictureStatusIsOnlyForTheSignedInUser() throws Exception {
+        mockMvc.perform(multipart(HttpMethod.PUT, "/users/profile/picture").file(png()))
+                .andExpect(status().isOk());
+        JsonNode status = null;
+        for (int attempt = 0; attempt < 100; attempt++) {
+            status = objectMapper.readTree(mockMvc.perform(get("/users/profile/picture"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            if (!status.get("status").asText().equals("PENDING")) {
+                break;
+            }
+            Thread.sleep(20);
+        }
+        assertThat(status.get("status").asText()).isEqualTo("READY");
+
+        mockMvc.perform(get("/users/profile/picture").with(anonymous()))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private JsonNode awaitImage(long id) throws Exception {
+        JsonNode status = null;
+        for (int attempt = 0; attempt < 100; attempt++) {
+            status = objectMapper.readTree(mockMvc.perform(get("/recipes/" + id + "/image"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            if (!status.get("status").asText().equals("PENDING")) {
+                return status;
+            }
+            Thread.sleep(20);
+        }
+        return status;
+    }
+
+    private ResultActions write(HttpMethod method, String url, MockMultipartFile image) throws Exception {
+        RecipeRequest request = new RecipeRequest();
+        request.setTitle("Grain bowl");
+        request.setInstructions("Cook, then assemble");
+        request.setPrepTime(10);
+        request.setCookTime(20);
+        request.setServings(2);
+        request.setCategory(RecipeCategory.LUNCH);
+        IngredientRequest ingredient = new IngredientRequest();
+        ingredient.setName("rice");
+        ingredient.setAmount(100.0);
+        ingredient.setUnit("g");
+        request.setIngredients(List.of(ingredient));
+        MockMultipartFile part = new MockMultipartFile("recipe", "", MediaType.APPLICATION_JSON_VALUE,
+                objectMapper.writeValueAsBytes(request));
+        return mockMvc.perform(multipart(method, url).file(part).file(image));
+    }
+
+    // A JPEG carrying an APP1 (EXIF) segment right after the start-of-image marker
+    private static MockMultipartFile jpegWithExif() throws Exception {
+        ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(40, 30, BufferedImage.TYPE_INT_RGB), "jpg", jpeg);
+        byte[] plain = jpeg.toByteArray();
+        byte[] payload = "Exif\0\0secret-location".getBytes(StandardCharsets.ISO_8859_1);
+
+        ByteArrayOutputStream withExif = new ByteArrayOutputStream();
+        withExif.write(plain, 0, 2);
+        withExif.write(new byte[]{(byte) 0xFF, (byte) 0xE1, 0, (byte) (payload.length + 2)});
+        withExif.write(payload);
+        withExif.write(plain, 2, plain.length - 2);
+        return new MockMultipartFile("image", "photo.jpg", MediaType.IMAGE_JPEG_VALUE, withExif.toByteArray());
+    }
+
+    private static MockMultipartFile png() throws Exception {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(20, 20, BufferedImage.TYPE_INT_ARGB), "png", png);
+        return new MockMultipartFile("image", "sticker.png", MediaType.IMAGE_PNG_VALUE, png.toByteArray());
+    }
+}
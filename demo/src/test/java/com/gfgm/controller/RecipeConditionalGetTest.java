@@ -0,0 +1,112 @@
+package com.gfgm.controller;
+
+import com.gfgm.event.RecipeChangedEvent;
+import com.gfgm.index.RecipeIndexer;
+import com.gfgm.model.Recipe;
+import com.gfgm.model.User;
+import com.gfgm.repository.RecipeRepository;
+import com.gfgm.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(username = "cook")
+class RecipeConditionalGetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private RecipeIndexer recipeIndexer;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Recipe recipe;
+
+    @BeforeEach
+    void setUp() {
+        recipeRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User user = new User();
+        user.setUsername("cook");
+        user.setPassword("secret");
+        user.setEmail("cook@example.com");
+        user = userRepository.save(user);
+
+        recipe = new Recipe();
+        recipe.setTitle("Lentil soup");
+        recipe.setUser(user);
+        recipe = recipeRepository.save(recipe);
+        recipeIndexer.rebuildAll();
+    }
+
+    @Test
+    void unchangedRecipeIsAnsweredFromItsTimestampsAlone() throws Exception {
+        MvcResult first = mockMvc.perform(get("/recipes/{id}", recipe.getId()))
+                .andExpect(status().isOk())
+                .andReturn();
+        String eTag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).startsWith("\"");
+        assertThat(first.getResponse().getHeader(HttpHeaders.LAST_MODIFIED)).isNotNull();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get("/recipes/{id}", recipe.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        recipe.setTitle("Red lentil soup");
+        recipeRepository.save(recipe);
+        MvcResult changed = mockMvc.perform(get("/recipes/{id}", recipe.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertThat(changed.getResponse().getHeader(HttpHeaders.ETAG)).isNotEqualTo(eTag);
+    }
+
+    @Test
+    void listPagesRevalidateUntilTheCatalogueChanges() throws Exception {
+        String eTag = mockMvc.perform(get("/recipes?size=5"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).startsWith("W/");
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get("/recipes?size=5").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        // Another page of the same catalogue has its own tag
+        mockMvc.perform(get("/recipes?size=10").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+
+        recipeIndexer.onRecipeChanged(new RecipeChangedEvent(recipe.getId(), false));
+        mockMvc.perform(get("/recipes?size=5").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,186 @@
+package com.gfgm.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gfgm.cache.RecipeDetailCache;
+import com.gfgm.dto.IngredientRequest;
+import com.gfgm.dto.RecipeDTO;
+import com.gfgm.dto.RecipeRequest;
+import com.gfgm.model.RecipeCategory;
+import com.gfgm.model.User;
+import com.gfgm.repository.RecipeRepository;
+import com.gfgm.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(username = "cook")
+class RecipeDetailCacheTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private RecipeDetailCache recipeDetailCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private User cook;
+    private Long recipeId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        recipeRepository.deleteAll();
+        userRepository.deleteAll();
+
+        cook = new User();
+        cook.setUsername("cook");
+        cook.setPassword("secret");
+        cook.setEmail("cook@example.com");
+        cook = userRepository.save(cook);
+
+        write(HttpMethod.POST, "/recipes", request("Lentil soup"));
+        recipeId = recipeRepository.findAll().get(0).getId();
+        // Cached from here on
+        mockMvc.perform(get("/recipes/{id}", recipeId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Lentil soup"));
+    }
+
+    @Test
+    void ownerAndAdminUpdatesAreServedAtOnce() throws Exception {
+        write(HttpMethod.PUT, "/recipes/" + recipeId, request("Red lentil soup"));
+        mockMvc.perform(get("/recipes/{id}", recipeId))
+                .andExpect(jsonPath("$.title").value("Red lentil soup"));
+
+        mockMvc.perform(put("/admin/recipes/{id}", recipeId)
+                        .with(user("admin").roles("ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"Spiced lentil soup\", \"protein\": 18}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/recipes/{id}", recipeId))
+                .andExpect(jsonPath("$.title").value("Spiced lentil soup"))
+                .andExpect(jsonPath("$.protein").value(18.0));
+    }
+
+    @Test
+    void renamingTheAuthorUpdatesTheEmbeddedSummary() throws Exception {
+        mockMvc.perform(get("/recipes/{id}", recipeId))
+                .andExpect(jsonPath("$.author.username").value("cook"));
+
+        mockMvc.perform(put("/users/profile")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\": \"chef\", \"email\": \"chef@example.com\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/recipes/{id}", recipeId))
+                .andExpect(jsonPath("$.author.username").value("chef"))
+                .andExpect(jsonPath("$.author.email").value("chef@example.com"));
+    }
+
+    @Test
+    void deletedRecipesAndRecipesOfDeletedUsersAreGone() throws Exception {
+        mockMvc.perform(delete("/recipes/{id}", recipeId)).andExpect(status().isNoContent());
+        mockMvc.perform(get("/recipes/{id}", recipeId)).andExpect(status().isNotFound());
+
+        write(HttpMethod.POST, "/recipes", request("Dal"));
+        Long dal = recipeRepository.findAll().get(0).getId();
+        mockMvc.perform(get("/recipes/{id}", dal)).andExpect(status().isOk());
+        mockMvc.perform(delete("/admin/users/{id}", cook.getId()).with(user("admin").roles("ADMIN")))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/recipes/{id}", dal)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void concurrentMissesOnOneIdLoadOnce() throws Exception {
+        recipeDetailCache.evict(recipeId);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        RecipeDTO loaded = new RecipeDTO();
+        loaded.setId(recipeId);
+
+        int callers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<CompletableFuture<Optional<RecipeDTO>>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(CompletableFuture.supplyAsync(() -> recipeDetailCache.get(recipeId, id -> {
+                    loads.incrementAndGet();
+                    loading.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return Optional.of(loaded);
+                }), executor));
+            }
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+            release.countDown();
+            for (CompletableFuture<Optional<RecipeDTO>> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).containsSame(loaded);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    private void write(HttpMethod method, String url, RecipeRequest recipe) throws Exception {
+        MockMultipartFile part = new MockMultipartFile("recipe", "", MediaType.APPLICATION_JSON_VALUE,
+                objectMapper.writeValueAsBytes(recipe));
+        mockMvc.perform(multipart(method, url).file(part)).andExpect(status().isOk());
+    }
+
+    private static RecipeRequest request(String title) {
+        RecipeRequest request = new RecipeRequest();
+        request.setTitle(title);
+        request.setInstructions("Simmer");
+        request.setPrepTime(5);
+        request.setCookTime(30);
+        request.setServings(4);
+        request.setCategory(RecipeCategory.DINNER);
+        IngredientRequest lentils = new IngredientRequest();
+        lentils.setName("lentils");
+        lentils.setAmount(250.0);
+        lentils.setUnit("g");
+        request.setIngredients(List.of(lentils));
+        return request;
+    }
+}
@@ -0,0 +1,176 @@
+package com.gfgm.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gfgm.index.RecipeIndexer;
+import com.gfgm.model.Ingredient;
+import com.gfgm.model.Recipe;
+import com.gfgm.model.Role;
+import com.gfgm.model.User;
+import com.gfgm.repository.IngredientRepository;
+import com.gfgm.repository.RecipeRepository;
+import com.gfgm.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(username = "admin", roles = "ADMIN")
+class RecipeImportTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
+    @SpyBean
+    private RecipeIndexer recipeIndexer;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        recipeRepository.deleteAll();
+        userRepository.deleteAll();
+        recipeIndexer.rebuildAll();
+
+        User admin = new User();
+        admin.setUsername("admin");
+        admin.setPassword("secret");
+        admin.setEmail("admin@example.com");
+        admin.setRole(Role.ADMIN);
+        userRepository.save(admin);
+    }
+
+    @Test
+    void ndjsonRowsAreImportedAndBadRowsReported() throws Exception {
+        String body = String.join("\n",
+                "{\"title\":\"Chicken rice\",\"category\":\"dinner\",\"protein\":40,"
+                        + "\"ingredients\":[{\"name\":\"chicken\",\"amount\":200,\"unit\":\"g\"},{\"name\":\"rice\",\"amount\":1,\"unit\":\"cup\"}]}",
+                "{\"name\":\"apple walnut tart\",\"ingredients\":[\"apple\",\"walnut\"],\"steps\":[\"bake\",\"serve\"]}",
+                "{\"title\":\"broken\"",
+                "",
+                "{\"ingredients\":[\"salt\"]}",
+                "{\"title\":\"Lentil soup\",\"ingredients\":[\"lentils\"]}");
+
+        List<JsonNode> events = importBody(body, "application/x-ndjson", 2);
+
+        assertThat(events).filteredOn(event -> event.get("event").asText().equals("error"))
+                .extracting(event -> event.get("row").asLong())
+                .containsExactly(3L, 5L);
+        JsonNode done = events.get(events.size() - 1);
+        assertThat(done.get("event").asText()).isEqualTo("done");
+        assertThat(done.get("rows").asLong()).isEqualTo(5);
+        assertThat(done.get("imported").asLong()).isEqualTo(3);
+        assertThat(done.get("failed").asLong()).isEqualTo(2);
+
+        Recipe tart = recipeRepository.findAll().stream()
+                .filter(recipe -> recipe.getTitle().equals("apple walnut tart")).findFirst().orElseThrow();
+        assertThat(tart.getInstructions()).isEqualTo("bake\nserve");
+        assertThat(tart.isPublished()).isTrue();
+        assertThat(ingredientRepository.findAll()).hasSize(5);
+        // committed chunks are searchable without a rebuild
+        mockMvc.perform(get("/recipes/search").param("query", "lentil"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(1));
+    }
+
+    @Test
+    void csvRecordsMayQuoteCommasAndLineBreaks() throws Exception {
+        String body = "title,instructions,servings,ingredients\r\n"
+                + "\"Pasta, fresh\",\"Boil.\nDrain.\",2,\"pasta:250:g; basil\"\r\n"
+                + "Toast,,-1,bread\r\n";
+
+        List<JsonNode> events = importBody(body, "text/csv", 100);
+
+        assertThat(events.get(0).get("event").asText()).isEqualTo("error");
+        assertThat(events.get(0).get("row").asLong()).isEqualTo(4);
+        Recipe pasta = recipeRepository.findAll().get(0);
+        assertThat(pasta.getTitle()).isEqualTo("Pasta, fresh");
+        assertThat(pasta.getInstructions()).isEqualTo("Boil.\nDrain.");
+        assertThat(ingredientRepository.findAll()).extracting(Ingredient::getName, Ingredient::getAmount, Ingredient::getUnit)
+                .containsExactlyInAnyOrder(
+                        tuple("pasta", 250.0, "g"),
+                        tuple("basil", 1.0, "unit"));
+    }
+
+    @Test
+    void chunksAreWrittenInBatches() throws Exception {
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < 200; i++) {
+            body.append(i == 0 ? "" : ",")
+                    .append("{\"name\":\"recipe ").append(i).append("\",\"ingredients\":[\"oats\",\"milk\",\"honey\"]}");
+        }
+        body.append("]");
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<JsonNode> events = importBody(body.toString(), "application/json", 100);
+
+        assertThat(events.get(events.size() - 1).get("imported").asLong()).isEqualTo(200);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(800);
+        // Two statements per chunk plus id blocks, instead of one per row
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(40);
+    }
+
+    @Test
+    void committedChunksAreNotInsertedAgainWhenIndexingFails() {
+        doThrow(new IllegalStateException("index unavailable")).when(recipeIndexer).indexAll(anyCollection());
+
+        assertThatThrownBy(() -> importBody("[{\"name\":\"oat bowl\",\"ingredients\":[\"oats\"]},"
+                + "{\"name\":\"rice bowl\",\"ingredients\":[\"rice\"]}]", "application/json", 100))
+                .hasRootCauseMessage("index unavailable");
+        assertThat(recipeRepository.findAll()).extracting(Recipe::getTitle)
+                .containsExactlyInAnyOrder("oat bowl", "rice bowl");
+    }
+
+    private List<JsonNode> importBody(String body, String contentType, int chunkSize) throws Exception {
+        String response = mockMvc.perform(post("/admin/recipes/import")
+                        .param("chunkSize", String.valueOf(chunkSize))
+                        .contentType(contentType)
+                        .content(body.getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        List<JsonNode> events = new ArrayList<>();
+        for (String line : response.split("\n")) {
+            events.add(objectMapper.readTree(line));
+        }
+        return events;
+    }
+}
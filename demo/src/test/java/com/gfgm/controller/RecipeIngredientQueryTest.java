@@ -0,0 +1,148 @@
+package com.gfgm.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gfgm.dto.IngredientRequest;
+import com.gfgm.dto.RecipeRequest;
+import com.gfgm.index.RecipeIndexer;
+import com.gfgm.model.RecipeCategory;
+import com.gfgm.model.User;
+import com.gfgm.repository.RecipeRepository;
+import com.gfgm.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(username = "cook")
+class RecipeIngredientQueryTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private RecipeIndexer recipeIndexer;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        recipeRepository.deleteAll();
+        userRepository.deleteAll();
+        recipeIndexer.rebuildAll();
+
+        User user = new User();
+        user.setUsername("cook");
+        user.setPassword("secret");
+        user.setEmail("cook@example.com");
+        userRepository.save(user);
+    }
+
+    @Test
+    void includeExcludeAndAnyOf() throws Exception {
+        write(HttpMethod.POST, "/recipes", request("Chicken rice", true, "chicken breast", "rice"));
+        write(HttpMethod.POST, "/recipes", request("Satay", true, "chicken thighs", "peanuts"));
+        write(HttpMethod.POST, "/recipes", request("Tofu bowl", true, "tofu", "rice"));
+
+        assertThat(titles("include", "chicken")).containsExactly("Satay", "Chicken rice");
+        assertThat(titles("include", "chicken", "exclude", "peanut")).containsExactly("Chicken rice");
+        assertThat(titles("anyOf", "tofu,peanut")).containsExactly("Tofu bowl", "Satay");
+        assertThat(titles("include", "rice", "anyOf", "tofu", "anyOf", "peanut")).containsExactly("Tofu bowl");
+        mockMvc.perform(get("/recipes/by-ingredients").param("include", "rice").param("view", "card"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(2))
+                .andExpect(jsonPath("$.content[0].title").value("Tofu bowl"));
+    }
+
+    @Test
+    void indexFollowsCreatesUpdatesAndDeletes() throws Exception {
+        write(HttpMethod.POST, "/recipes", request("Chicken rice", true, "chicken breast", "rice"));
+        write(HttpMethod.POST, "/recipes", request("Draft curry", false, "chicken", "curry paste"));
+        assertThat(titles("include", "chicken")).containsExactly("Chicken rice");
+
+        Long chickenRice = idOf("Chicken rice");
+        write(HttpMethod.PUT, "/recipes/" + chickenRice, request("Turkey rice", true, "turkey breast", "rice"));
+        assertThat(titles("include", "chicken")).isEmpty();
+        assertThat(titles("include", "turkey")).containsExactly("Turkey rice");
+
+        write(HttpMethod.PUT, "/recipes/" + idOf("Draft curry"), request("Chicken curry", true, "chicken", "curry paste"));
+        assertThat(titles("include", "chicken")).containsExactly("Chicken curry");
+
+        write(HttpMethod.PUT, "/recipes/" + chickenRice, request("Turkey rice", false, "turkey breast", "rice"));
+        assertThat(titles("include", "turkey")).isEmpty();
+
+        mockMvc.perform(delete("/recipes/" + idOf("Chicken curry"))).andExpect(status().isNoContent());
+        assertThat(titles("include", "chicken")).isEmpty();
+        assertThat(titles("anyOf", "rice,curry")).isEmpty();
+    }
+
+    private Long idOf(String title) {
+        return recipeRepository.findAll().stream()
+                .filter(recipe -> recipe.getTitle().equals(title)).findFirst().orElseThrow().getId();
+    }
+
+    private List<String> titles(String... params) throws Exception {
+        var request = get("/recipes/by-ingredients");
+        for (int i = 0; i < params.length; i += 2) {
+            request.param(params[i], params[i + 1]);
+        }
+        String body = mockMvc.perform(request).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<String> titles = new ArrayList<>();
+        objectMapper.readTree(body).path("content").forEach(recipe -> titles.add(recipe.path("title").asText()));
+        return titles;
+    }
+
+    private void write(HttpMethod method, String url, RecipeRequest recipe) throws Exception {
+        MockMultipartFile part = new MockMultipartFile("recipe", "", MediaType.APPLICATION_JSON_VALUE,
+                objectMapper.writeValueAsBytes(recipe));
+        mockMvc.perform(multipart(method, url).file(part)).andExpect(status().isOk());
+    }
+
+    private static RecipeRequest request(String title, boolean published, String... ingredients) {
+        RecipeRequest request = new RecipeRequest();
+        request.setTitle(title);
+        request.setInstructions("Cook");
+        request.setPrepTime(5);
+        request.setCookTime(10);
+        request.setServings(2);
+        request.setCategory(RecipeCategory.DINNER);
+        request.setPublished(published);
+        List<IngredientRequest> list = new ArrayList<>();
+        for (String name : ingredients) {
+            IngredientRequest ingredient = new IngredientRequest();
+            ingredient.setName(name);
+            ingredient.setAmount(100.0);
+            ingredient.setUnit("g");
+            list.add(ingredient);
+        }
+        request.setIngredients(list);
+        return request;
+    }
+}
@@ -0,0 +1,176 @@
+package com.gfgm.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gfgm.index.RecipeIndexer;
+import com.gfgm.model.Ingredient;
+import com.gfgm.model.Recipe;
+import com.gfgm.model.RecipeCategory;
+import com.gfgm.model.User;
+import com.gfgm.repository.RecipeRepository;
+import com.gfgm.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(username = "cook")
+class RecipeListQueryCountTest {
+    private static final int RECIPES = 30;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private RecipeIndexer recipeIndexer;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        recipeRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User user = new User();
+        user.setUsername("cook");
+        user.setPassword("secret");
+        user.setEmail("cook@example.com");
+        user = userRepository.save(user);
+
+        for (int i = 0; i < RECIPES; i++) {
+            Recipe recipe = new Recipe();
+            recipe.setTitle("Chicken bowl " + i);
+            recipe.setDescription("High protein chicken and rice");
+            recipe.setCategory(RecipeCategory.DINNER);
+            recipe.setGeneratedByAi(true);
+            recipe.setUser(user);
+            for (String name : new String[]{"chicken", "rice", "broccoli"}) {
+                Ingredient ingredient = new Ingredient();
+                ingredient.setName(name);
+                ingredient.setAmount(100.0);
+                ingredient.setUnit("g");
+                ingredient.setRecipe(recipe);
+                recipe.getIngredients().add(ingredient);
+            }
+            recipeRepository.save(recipe);
+        }
+        recipeIndexer.rebuildAll();
+    }
+
+    @Test
+    void allRecipesUsesConstantQueriesPerPage() throws Exception {
+        // page, count, ingredient batch
+        assertThat(statementsFor("/recipes?size=5")).isEqualTo(3);
+        assertThat(statementsFor("/recipes?size=20")).isEqualTo(3);
+    }
+
+    @Test
+    void aiRecipesUsesConstantQueriesPerPage() throws Exception {
+        assertThat(statementsFor("/recipes/ai?size=5")).isEqualTo(3);
+        assertThat(statementsFor("/recipes/ai?size=20")).isEqualTo(3);
+    }
+
+    @Test
+    void myRecipesUsesConstantQueriesPerPage() throws Exception {
+        // current user, page, count, ingredient batch
+        assertThat(statementsFor("/recipes/my-recipes?size=5")).isEqualTo(4);
+        assertThat(statementsFor("/recipes/my-recipes?size=20")).isEqualTo(4);
+    }
+
+    @Test
+    void searchUsesOneQueryPerPage() throws Exception {
+        assertThat(statementsFor("/recipes/search?query=chicken&size=5")).isEqualTo(1);
+        assertThat(statementsFor("/recipes/search?query=chicken&size=20")).isEqualTo(1);
+    }
+
+    @Test
+    void cardViewNeverLoadsIngredientsOrAuthors() throws Exception {
+        // page and count only
+        assertThat(statementsFor("/recipes?view=card&size=20")).isEqualTo(2);
+        assertThat(statementsFor("/recipes/ai?view=card&size=20")).isEqualTo(2);
+        assertThat(statementsFor("/recipes/search?query=chicken&view=card&size=20")).isEqualTo(1);
+        assertThat(statementsFor("/recipes?view=card&cursor=&size=20")).isEqualTo(1);
+
+        String body = mockMvc.perform(get("/recipes").param("view", "card"))
+                .andReturn().getResponse().getContentAsString();
+        JsonNode card = objectMapper.readTree(body).get("content").get(0);
+        assertThat(card.has("title")).isTrue();
+        assertThat(card.has("description")).isFalse();
+        assertThat(card.has("ingredients")).isFalse();
+    }
+
+    @Test
+    void cursorPagesCostTheSameAtAnyDepthAndCoverEveryRecipe() throws Exception {
+        Set<Long> seen = new HashSet<>();
+        String cursor = "";
+        int pages = 0;
+        while (cursor != null) {
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            statistics.clear();
+            String body = mockMvc.perform(get("/recipes").param("cursor", cursor).param("size", "7"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            // page and ingredient batch, no COUNT
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+
+            JsonNode page = objectMapper.readTree(body);
+            page.get("content").forEach(recipe -> seen.add(recipe.get("id").asLong()));
+            cursor = page.get("hasNext").asBoolean() ? page.get("nextCursor").asText() : null;
+            pages++;
+        }
+        assertThat(seen).hasSize(RECIPES);
+        assertThat(pages).isEqualTo(5);
+    }
+
+    @Test
+    void cursorPagesRejectEmptySizesAndCapLargeOnes() throws Exception {
+        // /recipes/ai binds a Pageable, which already falls back to its default size
+        for (String url : new String[]{"/recipes", "/recipes/my-recipes", "/recipes/search?query=chicken"}) {
+            mockMvc.perform(get(url).param("cursor", "").param("size", "0")).andExpect(status().isBadRequest());
+            mockMvc.perform(get(url).param("cursor", "").param("size", "-5")).andExpect(status().isBadRequest());
+        }
+        mockMvc.perform(get("/recipes").param("cursor", "").param("view", "card").param("size", "0"))
+                .andExpect(status().isBadRequest());
+
+        String body = mockMvc.perform(get("/recipes").param("cursor", "").param("size", String.valueOf(Integer.MAX_VALUE)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode page = objectMapper.readTree(body);
+        assertThat(page.get("content")).hasSize(RECIPES);
+        assertThat(page.get("hasNext").asBoolean()).isFalse();
+    }
+
+    private long statementsFor(String url) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+}
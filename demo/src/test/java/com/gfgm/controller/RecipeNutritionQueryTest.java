@@ -0,0 +1,167 @@
+package com.gfgm.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gfgm.dto.IngredientRequest;
+import com.gfgm.dto.RecipeRequest;
+import com.gfgm.index.RecipeIndexer;
+import com.gfgm.model.RecipeCategory;
+import com.gfgm.model.User;
+import com.gfgm.repository.RecipeRepository;
+import com.gfgm.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(username = "cook")
+class RecipeNutritionQueryTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private RecipeIndexer recipeIndexer;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        recipeRepository.deleteAll();
+        userRepository.deleteAll();
+        recipeIndexer.rebuildAll();
+
+        User user = new User();
+        user.setUsername("cook");
+        user.setPassword("secret");
+        user.setEmail("cook@example.com");
+        userRepository.save(user);
+    }
+
+    @Test
+    void sortsByProteinRatioWithoutAFilter() throws Exception {
+        write(HttpMethod.POST, "/recipes", request("Pancakes", 600.0, 30.0));
+        write(HttpMethod.POST, "/recipes", request("Chicken bowl", 400.0, 40.0));
+        write(HttpMethod.POST, "/recipes", request("Egg whites", 250.0, 50.0));
+
+        assertThat(titles("sortBy", "proteinPer100Kcal"))
+                .containsExactly("Egg whites", "Chicken bowl", "Pancakes");
+        assertThat(titles("sortBy", "proteinPer100Kcal", "direction", "ASC"))
+                .containsExactly("Pancakes", "Chicken bowl", "Egg whites");
+        assertThat(titles("sortBy", "calories", "view", "card"))
+                .containsExactly("Pancakes", "Chicken bowl", "Egg whites");
+        mockMvc.perform(get("/recipes").param("sortBy", "title").param("minProtein", "10"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void filterFollowsCreatesUpdatesAndDeletes() throws Exception {
+        write(HttpMethod.POST, "/recipes", request("Chicken bowl", 400.0, 40.0));
+        write(HttpMethod.POST, "/recipes", request("Pancakes", 600.0, 30.0));
+        Long pancakes = recipeRepository.findAll().stream()
+                .filter(recipe -> recipe.getTitle().equals("Pancakes")).findFirst().orElseThrow().getId();
+        assertThat(titles("minProteinPer100Kcal", "8")).containsExactly("Chicken bowl");
+
+        write(HttpMethod.PUT, "/recipes/" + pancakes, request("Protein pancakes", 300.0, 30.0));
+        assertThat(titles("minProteinPer100Kcal", "8", "sortBy", "proteinPer100Kcal"))
+                .containsExactly("Protein pancakes", "Chicken bowl");
+
+        RecipeRequest draft = request("Protein pancakes", 300.0, 30.0);
+        draft.setPublished(false);
+        write(HttpMethod.PUT, "/recipes/" + pancakes, draft);
+        assertThat(titles("minProteinPer100Kcal", "8")).containsExactly("Chicken bowl");
+
+        Long bowl = recipeRepository.findAll().stream()
+                .filter(recipe -> recipe.getTitle().equals("Chicken bowl")).findFirst().orElseThrow().getId();
+        mockMvc.perform(delete("/recipes/" + bowl)).andExpect(status().isNoContent());
+        assertThat(titles("minProteinPer100Kcal", "8")).isEmpty();
+    }
+
+    @Test
+    void draftsAreLeftOutWhicheverWayTheListingIsFetched() throws Exception {
+        write(HttpMethod.POST, "/recipes", request("Chicken bowl", 400.0, 40.0));
+        RecipeRequest draft = request("Draft omelette", 300.0, 25.0);
+        draft.setPublished(false);
+        write(HttpMethod.POST, "/recipes", draft);
+        write(HttpMethod.POST, "/recipes", request("Pancakes", 600.0, 30.0));
+
+        assertThat(titles()).containsExactly("Pancakes", "Chicken bowl");
+        assertThat(titles("view", "card")).containsExactly("Pancakes", "Chicken bowl");
+        assertThat(titles("cursor", "", "withTotal", "true")).containsExactly("Pancakes", "Chicken bowl");
+        assertThat(titles("cursor", "", "view", "card")).containsExactly("Pancakes", "Chicken bowl");
+        assertThat(titles("sortBy", "protein")).containsExactly("Chicken bowl", "Pancakes");
+        assertThat(titles("sortBy", "title", "direction", "ASC")).containsExactly("Chicken bowl", "Pancakes");
+
+        mockMvc.perform(get("/recipes"))
+                .andExpect(jsonPath("$.totalElements").value(2));
+        mockMvc.perform(get("/recipes").param("cursor", "").param("withTotal", "true"))
+                .andExpect(jsonPath("$.totalElements").value(2));
+        mockMvc.perform(get("/recipes").param("sortBy", "protein"))
+                .andExpect(jsonPath("$.totalElements").value(2));
+        // Owners still find their drafts
+        assertThat(objectMapper.readTree(mockMvc.perform(get("/recipes/my-recipes"))
+                .andReturn().getResponse().getContentAsString()).path("content").size()).isEqualTo(3);
+    }
+
+    private List<String> titles(String... params) throws Exception {
+        var request = get("/recipes");
+        for (int i = 0; i < params.length; i += 2) {
+            request.param(params[i], params[i + 1]);
+        }
+        String body = mockMvc.perform(request).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<String> titles = new ArrayList<>();
+        objectMapper.readTree(body).path("content").forEach(recipe -> titles.add(recipe.path("title").asText()));
+        return titles;
+    }
+
+    private void write(HttpMethod method, String url, RecipeRequest recipe) throws Exception {
+        MockMultipartFile part = new MockMultipartFile("recipe", "", MediaType.APPLICATION_JSON_VALUE,
+                objectMapper.writeValueAsBytes(recipe));
+        mockMvc.perform(multipart(method, url).file(part)).andExpect(status().isOk());
+    }
+
+    private static RecipeRequest request(String title, Double calories, Double protein) {
+        RecipeRequest request = new RecipeRequest();
+        request.setTitle(title);
+        request.setInstructions("Cook");
+        request.setPrepTime(5);
+        request.setCookTime(10);
+        request.setServings(1);
+        request.setCategory(RecipeCategory.BREAKFAST);
+        request.setCalories(calories);
+        request.setProtein(protein);
+        IngredientRequest ingredient = new IngredientRequest();
+        ingredient.setName("eggs");
+        ingredient.setAmount(2.0);
+        ingredient.setUnit("unit");
+        request.setIngredients(List.of(ingredient));
+        return request;
+    }
+}
@@ -0,0 +1,184 @@
+package com.gfgm.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gfgm.dto.IngredientRequest;
+import com.gfgm.dto.RecipeRequest;
+import com.gfgm.model.Ingredient;
+import com.gfgm.model.RecipeCategory;
+import com.gfgm.model.User;
+import com.gfgm.repository.IngredientRepository;
+import com.gfgm.repository.RecipeRepository;
+import com.gfgm.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(username = "cook")
+class RecipeWriteQueryCountTest {
+    private static final int INGREDIENTS = 30;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        recipeRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User user = new User();
+        user.setUsername("cook");
+        user.setPassword("secret");
+        user.setEmail("cook@example.com");
+        userRepository.save(user);
+    }
+
+    @Test
+    void ingredientInsertsAreBatched() throws Exception {
+        Statistics statistics = statistics();
+        write(HttpMethod.POST, "/recipes", request(INGREDIENTS));
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(INGREDIENTS + 1);
+        // one statement per table, not per row, plus lookups and id blocks
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(10);
+    }
+
+    @Test
+    void editingOneIngredientWritesOneRow() throws Exception {
+        write(HttpMethod.POST, "/recipes", request(5));
+        Long recipeId = recipeRepository.findAll().get(0).getId();
+        Map<String, Long> idsBefore = ingredientIds();
+
+        RecipeRequest edit = request(5);
+        edit.getIngredients().get(2).setAmount(250.0);
+        Statistics statistics = statistics();
+        write(HttpMethod.PUT, "/recipes/" + recipeId, edit);
+
+        // recipe, user id, its ingredients, the changed row, the recipe timestamp, then the index reload
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(2);
+        assertThat(statistics.getEntityInsertCount()).isZero();
+        assertThat(statistics.getEntityDeleteCount()).isZero();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(6);
+        assertThat(ingredientIds()).isEqualTo(idsBefore);
+    }
+
+    @Test
+    void replacedIngredientsReuseRowsAndDropOnlyTheSurplus() throws Exception {
+        write(HttpMethod.POST, "/recipes", request(5));
+        Long recipeId = recipeRepository.findAll().get(0).getId();
+
+        RecipeRequest edit = request(3);
+        edit.getIngredients().get(0).setName("quinoa");
+        Statistics statistics = statistics();
+        write(HttpMethod.PUT, "/recipes/" + recipeId, edit);
+
+        assertThat(statistics.getEntityInsertCount()).isZero();
+        assertThat(statistics.getEntityDeleteCount()).isEqualTo(2);
+        assertThat(ingredientRepository.findAll()).extracting(Ingredient::getName)
+                .containsExactlyInAnyOrder("quinoa", "ingredient 1", "ingredient 2");
+    }
+
+    @Test
+    void ingredientOrderFollowsTheRequest() throws Exception {
+        write(HttpMethod.POST, "/recipes", request(3));
+        Long recipeId = recipeRepository.findAll().get(0).getId();
+
+        RecipeRequest reordered = request(3);
+        Collections.reverse(reordered.getIngredients());
+        write(HttpMethod.PUT, "/recipes/" + recipeId, reordered);
+        assertThat(ingredientNames(recipeId)).containsExactly("ingredient 2", "ingredient 1", "ingredient 0");
+
+        RecipeRequest inserted = request(3);
+        IngredientRequest salt = new IngredientRequest();
+        salt.setName("salt");
+        salt.setAmount(1.0);
+        salt.setUnit("pinch");
+        inserted.getIngredients().add(1, salt);
+        write(HttpMethod.PUT, "/recipes/" + recipeId, inserted);
+        assertThat(ingredientNames(recipeId)).containsExactly("ingredient 0", "salt", "ingredient 1", "ingredient 2");
+    }
+
+    private List<String> ingredientNames(Long recipeId) throws Exception {
+        String body = mockMvc.perform(get("/recipes/" + recipeId)).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<String> names = new ArrayList<>();
+        objectMapper.readTree(body).path("ingredients").forEach(ingredient -> names.add(ingredient.path("name").asText()));
+        return names;
+    }
+
+    private Map<String, Long> ingredientIds() {
+        return ingredientRepository.findAll().stream()
+                .collect(Collectors.toMap(Ingredient::getName, Ingredient::getId));
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    private void write(HttpMethod method, String url, RecipeRequest recipe) throws Exception {
+        MockMultipartFile part = new MockMultipartFile("recipe", "", MediaType.APPLICATION_JSON_VALUE,
+                objectMapper.writeValueAsBytes(recipe));
+        mockMvc.perform(multipart(method, url).file(part)).andExpect(status().isOk());
+    }
+
+    private static RecipeRequest request(int ingredients) {
+        RecipeRequest request = new RecipeRequest();
+        request.setTitle("Grain bowl");
+        request.setInstructions("Cook, then assemble");
+        request.setPrepTime(10);
+        request.setCookTime(20);
+        request.setServings(2);
+        request.setCategory(RecipeCategory.LUNCH);
+        List<IngredientRequest> list = new ArrayList<>();
+        for (int i = 0; i < ingredients; i++) {
+            IngredientRequest ingredient = new IngredientRequest();
+            ingredient.setName("ingredient " + i);
+            ingredient.setAmount(100.0 + i);
+            ingredient.setUnit("g");
+            list.add(ingredient);
+        }
+        request.setIngredients(list);
+        return request;
+    }
+}
@@ -0,0 +1,75 @@
+package com.gfgm.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "file.upload-dir=target/test-uploads/")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class UploadControllerTest {
+    private static final String NAME = "0123456789abcdef.png";
+    private static final String BODY = "0123456789abcdefghijklmnopqrstuvwxyz";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path file = Paths.get("target/test-uploads", NAME);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, BODY, StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    void servesImmutableFilesWithTheirNameAsETag() throws Exception {
+        mockMvc.perform(get("/uploads/" + NAME))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + NAME + "\""))
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/png"))
+                .andExpect(content().string(BODY));
+
+        mockMvc.perform(get("/uploads/" + NAME).header(HttpHeaders.IF_NONE_MATCH, "\"" + NAME + "\""))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/uploads/.hidden.png"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void servesSingleByteRanges() throws Exception {
+        mockMvc.perform(get("/uploads/" + NAME).header(HttpHeaders.RANGE, "bytes=10-15"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 10-15/36"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 6))
+                .andExpect(content().string("abcdef"));
+
+        mockMvc.perform(get("/uploads/" + NAME).header(HttpHeaders.RANGE, "bytes=-4"))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().string("wxyz"));
+
+        // Range is ignored when If-Range names another version
+        mockMvc.perform(get("/uploads/" + NAME).header(HttpHeaders.RANGE, "bytes=0-1").header(HttpHeaders.IF_RANGE, "\"other\""))
+                .andExpect(status().isOk())
+                .andExpect(content().string(BODY));
+
+        mockMvc.perform(get("/uploads/" + NAME).header(HttpHeaders.RANGE, "bytes=100-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */36"));
+    }
+}
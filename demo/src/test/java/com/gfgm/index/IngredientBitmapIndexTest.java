@@ -0,0 +1,95 @@
+package com.gfgm.index;
+
+import com.gfgm.model.Ingredient;
+import com.gfgm.model.Recipe;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IngredientBitmapIndexTest {
+
+    private final IngredientBitmapIndex index = new IngredientBitmapIndex();
+
+    @BeforeEach
+    void setUp() {
+        index.index(recipe(1L, "Chicken breast", "brown rice", "soy sauce"));
+        index.index(recipe(2L, "chicken thighs", "peanuts", "rice noodles"));
+        index.index(recipe(3L, "Tofu", "brown rice", "Broccoli"));
+        index.index(recipe(4L, "salmon", "Potatoes", "lemon"));
+    }
+
+    @Test
+    void includeNeedsEveryTermAndMatchesWholeNamesOrWords() {
+        assertThat(find(List.of("chicken"), null, null)).containsExactly(2L, 1L);
+        assertThat(find(List.of("chicken breast"), null, null)).containsExactly(1L);
+        assertThat(find(List.of("Chicken", "rice"), null, null)).containsExactly(2L, 1L);
+        assertThat(find(List.of("chicken", "broccoli"), null, null)).isEmpty();
+        // plurals and punctuation normalize on both sides
+        assertThat(find(List.of("potato"), null, null)).containsExactly(4L);
+        assertThat(find(List.of("chicken-thigh"), null, null)).containsExactly(2L);
+        assertThat(find(List.of("saffron"), null, null)).isEmpty();
+    }
+
+    @Test
+    void excludeDropsAnyRecipeWithTheTerm() {
+        assertThat(find(null, List.of("peanut"), null)).containsExactly(4L, 3L, 1L);
+        assertThat(find(List.of("rice"), List.of("chicken"), null)).containsExactly(3L);
+        assertThat(find(List.of("rice"), List.of("saffron"), null)).containsExactly(3L, 2L, 1L);
+    }
+
+    @Test
+    void anyOfNeedsAtLeastOneTerm() {
+        assertThat(find(null, null, List.of("tofu", "salmon"))).containsExactly(4L, 3L);
+        assertThat(find(List.of("rice"), null, List.of("tofu", "peanut"))).containsExactly(3L, 2L);
+        assertThat(find(null, List.of("broccoli"), List.of("tofu", "salmon"))).containsExactly(4L);
+        assertThat(find(null, null, List.of("saffron"))).isEmpty();
+        // no terms at all matches every published recipe
+        assertThat(find(null, null, List.of())).containsExactly(4L, 3L, 2L, 1L);
+    }
+
+    @Test
+    void pagesNewestFirstWithTheTotal() {
+        IngredientBitmapIndex.Result result = index.find(null, null, null, 1, 2);
+        assertThat(result.getRecipeIds()).containsExactly(3L, 2L);
+        assertThat(result.getTotalMatches()).isEqualTo(4);
+        assertThat(index.find(null, null, null, 4, 2).getRecipeIds()).isEmpty();
+    }
+
+    @Test
+    void reindexingReplacesTermsAndUnpublishedOrRemovedRecipesDisappear() {
+        index.index(recipe(1L, "turkey breast", "brown rice"));
+        assertThat(find(List.of("chicken"), null, null)).containsExactly(2L);
+        assertThat(find(List.of("turkey"), null, null)).containsExactly(1L);
+        assertThat(find(List.of("soy"), null, null)).isEmpty();
+
+        Recipe draft = recipe(3L, "Tofu", "brown rice", "Broccoli");
+        draft.setPublished(false);
+        index.index(draft);
+        index.remove(4L);
+        assertThat(find(null, null, null)).containsExactly(2L, 1L);
+        assertThat(find(null, List.of("chicken"), null)).containsExactly(1L);
+
+        index.clear();
+        assertThat(index.find(null, null, null, 0, 10).getTotalMatches()).isZero();
+    }
+
+    private List<Long> find(List<String> include, List<String> exclude, List<String> anyOf) {
+        return index.find(include, exclude, anyOf, 0, 10).getRecipeIds();
+    }
+
+    private static Recipe recipe(Long id, String... ingredients) {
+        Recipe recipe = new Recipe();
+        recipe.setId(id);
+        recipe.setTitle("Recipe " + id);
+        for (String name : ingredients) {
+            Ingredient ingredient = new Ingredient();
+            ingredient.setName(name);
+            ingredient.setRecipe(recipe);
+            recipe.getIngredients().add(ingredient);
+        }
+        return recipe;
+    }
+}
@@ -0,0 +1,104 @@
+package com.gfgm.index;
+
+import com.gfgm.dto.NutritionFilter;
+import com.gfgm.model.Recipe;
+import com.gfgm.model.RecipeCategory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NutritionIndexTest {
+
+    private final NutritionIndex index = new NutritionIndex();
+
+    @BeforeEach
+    void setUp() {
+        // protein per 100 kcal: 1 -> 10, 2 -> 5, 3 -> 20, 4 unknown (no calories), 5 -> 8
+        index.index(recipe(1L, RecipeCategory.DINNER, 400.0, 40.0));
+        index.index(recipe(2L, RecipeCategory.BREAKFAST, 600.0, 30.0));
+        index.index(recipe(3L, RecipeCategory.DINNER, 250.0, 50.0));
+        index.index(recipe(4L, RecipeCategory.SNACK, null, 12.0));
+        index.index(recipe(5L, RecipeCategory.DINNER, 500.0, 40.0));
+    }
+
+    @Test
+    void boundsAreInclusiveAndMissingValuesNeverMatch() {
+        NutritionFilter filter = new NutritionFilter();
+        filter.setMinCalories(400.0);
+        filter.setMaxCalories(500.0);
+        assertThat(find(filter, null, true).getRecipeIds()).containsExactly(5L, 1L);
+
+        filter = new NutritionFilter();
+        filter.setMaxCalories(10_000.0);
+        assertThat(find(filter, null, true).getRecipeIds()).doesNotContain(4L);
+
+        filter = new NutritionFilter();
+        filter.setMinProteinPer100Kcal(10.0);
+        assertThat(find(filter, null, true).getRecipeIds()).containsExactly(3L, 1L);
+
+        filter = new NutritionFilter();
+        filter.setMinProtein(40.0);
+        filter.setCategory(RecipeCategory.DINNER);
+        NutritionIndex.Result result = find(filter, NutritionIndex.Column.PROTEIN, true);
+        assertThat(result.getRecipeIds()).containsExactly(3L, 5L, 1L);
+        assertThat(result.getTotalMatches()).isEqualTo(3);
+    }
+
+    @Test
+    void sortsByRatioWithMissingValuesLast() {
+        NutritionFilter all = new NutritionFilter();
+        assertThat(find(all, NutritionIndex.Column.PROTEIN_PER_100_KCAL, true).getRecipeIds())
+                .containsExactly(3L, 1L, 5L, 2L, 4L);
+        assertThat(find(all, NutritionIndex.Column.PROTEIN_PER_100_KCAL, false).getRecipeIds())
+                .containsExactly(2L, 5L, 1L, 3L, 4L);
+
+        NutritionIndex.Result page = index.find(all, NutritionIndex.Column.PROTEIN_PER_100_KCAL, true, 1, 2);
+        assertThat(page.getRecipeIds()).containsExactly(1L, 5L);
+        assertThat(page.getTotalMatches()).isEqualTo(5);
+        assertThat(index.find(all, null, true, 5, 2).getRecipeIds()).isEmpty();
+    }
+
+    @Test
+    void followsUpdatesUnpublishingAndRemoval() {
+        Recipe lighter = recipe(2L, RecipeCategory.BREAKFAST, 100.0, 30.0);
+        index.index(lighter);
+        assertThat(find(new NutritionFilter(), NutritionIndex.Column.PROTEIN_PER_100_KCAL, true).getRecipeIds())
+                .startsWith(2L);
+
+        lighter.setPublished(false);
+        index.index(lighter);
+        index.remove(3L);
+        NutritionIndex.Result result = find(new NutritionFilter(), NutritionIndex.Column.CALORIES, false);
+        assertThat(result.getRecipeIds()).containsExactly(1L, 5L, 4L);
+        assertThat(result.getTotalMatches()).isEqualTo(3);
+
+        index.clear();
+        assertThat(find(new NutritionFilter(), null, true).getTotalMatches()).isZero();
+    }
+
+    @Test
+    void onlyMacroAndRatioPropertiesAreColumns() {
+        assertThat(NutritionIndex.Column.isProperty("proteinPer100Kcal")).isTrue();
+        assertThat(NutritionIndex.Column.isProperty("Calories")).isTrue();
+        assertThat(NutritionIndex.Column.isProperty("createdAt")).isFalse();
+        assertThat(NutritionIndex.Column.isProperty(null)).isFalse();
+        assertThatThrownBy(() -> NutritionIndex.Column.fromProperty("title"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private NutritionIndex.Result find(NutritionFilter filter, NutritionIndex.Column sortBy, boolean descending) {
+        return index.find(filter, sortBy, descending, 0, 10);
+    }
+
+    private static Recipe recipe(Long id, RecipeCategory category, Double calories, Double protein) {
+        Recipe recipe = new Recipe();
+        recipe.setId(id);
+        recipe.setTitle("Recipe " + id);
+        recipe.setCategory(category);
+        recipe.setCalories(calories);
+        recipe.setProtein(protein);
+        return recipe;
+    }
+}
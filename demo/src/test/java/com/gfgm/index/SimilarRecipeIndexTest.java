@@ -0,0 +1,71 @@
+package com.gfgm.index;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gfgm.model.Ingredient;
+import com.gfgm.model.Recipe;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SimilarRecipeIndexTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void ranksRecipesByIngredientOverlap() {
+        SimilarRecipeIndex index = new SimilarRecipeIndex("", new ObjectMapper());
+        index.index(recipe(1L, "Chicken rice", "Chicken breast", "brown rice", "soy sauce", "garlic"));
+        index.index(recipe(2L, "Chicken salad", "chicken breast", "spinach", "olive oil", "lemon"));
+        index.index(recipe(3L, "Oats", "rolled oats", "banana", "peanut butter"));
+        Recipe draft = recipe(4L, "Draft chicken rice", "chicken breast", "brown rice", "soy sauce", "garlic");
+        draft.setPublished(false);
+        index.index(draft);
+
+        List<SimilarRecipeIndex.Match> matches = index.nearest(List.of("garlic", "Chicken Breasts", "brown rice", "soy sauce"), 5);
+        assertThat(matches).extracting(SimilarRecipeIndex.Match::recipeId).startsWith(1L).doesNotContain(3L, 4L);
+        assertThat(matches.get(0).similarity()).isEqualTo(1.0);
+        assertThat(index.nearest(List.of("tofu"), 5)).isEmpty();
+
+        index.remove(1L);
+        assertThat(index.nearest(List.of("garlic", "chicken breast", "brown rice", "soy sauce"), 5))
+                .extracting(SimilarRecipeIndex.Match::recipeId).doesNotContain(1L);
+    }
+
+    @Test
+    void modelRecipesAreIndexedAndSurviveRebuilds() throws Exception {
+        Path recipes = dir.resolve("recipes.json");
+        Files.writeString(recipes, """
+                [{"name": "tofu stir fry", "ingredients": ["tofu", "soy sauce", "broccoli"], "steps": ["fry"]},
+                 {"name": "lentil soup", "ingredients": ["lentils", "carrots", "onion"], "steps": ["simmer"]}]
+                """);
+        SimilarRecipeIndex index = new SimilarRecipeIndex(recipes.toString(), new ObjectMapper());
+        index.clear();
+
+        List<SimilarRecipeIndex.Match> matches = index.nearest(List.of("tofu", "broccoli", "soy sauce"), 1);
+        assertThat(matches).singleElement().satisfies(match -> {
+            assertThat(match.recipeId()).isNull();
+            assertThat(match.name()).isEqualTo("tofu stir fry");
+            assertThat(match.ingredients()).containsExactly("tofu", "soy sauce", "broccoli");
+            assertThat(match.steps()).containsExactly("fry");
+        });
+    }
+
+    private static Recipe recipe(Long id, String title, String... ingredients) {
+        Recipe recipe = new Recipe();
+        recipe.setId(id);
+        recipe.setTitle(title);
+        for (String name : ingredients) {
+            Ingredient ingredient = new Ingredient();
+            ingredient.setName(name);
+            ingredient.setRecipe(recipe);
+            recipe.getIngredients().add(ingredient);
+        }
+        return recipe;
+    }
+}
@@ -0,0 +1,60 @@
+package com.gfgm.ingredient;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IngredientNormalizerTest {
+
+    @TempDir
+    Path dir;
+
+    private IngredientVocabulary vocabulary;
+    private IngredientNormalizer normalizer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // Spellings as in the model's vocabulary, with near neighbours to tell apart
+        Path path = dir.resolve("ingredients.json");
+        Files.writeString(path, """
+                ["1% low-fat milk", "2% reduced-fat milk", "skim milk", "chicken breast", "chicken breasts",
+                 "chicken thighs", "chicken broth", "tomatoes", "tomato paste", "garlic", "garlic powder"]
+                """);
+        vocabulary = new IngredientVocabulary(path.toString(), new ObjectMapper());
+        normalizer = new IngredientNormalizer(vocabulary, 0.7, 1000, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void freeTextLandsOnTheVocabularySpelling() {
+        assertThat(nameOf("lowfat milk 1 percent")).isEqualTo("1% low-fat milk");
+        assertThat(nameOf("Low-Fat Milk (1%)")).isEqualTo("1% low-fat milk");
+        assertThat(nameOf("  Chicken Breasts ")).isEqualTo("chicken breast");
+        assertThat(nameOf("chiken breast")).isEqualTo("chicken breast");
+        assertThat(nameOf("chicken thigh")).isEqualTo("chicken thighs");
+        assertThat(nameOf("tomato")).isEqualTo("tomatoes");
+        assertThat(nameOf("Garlic Powder")).isEqualTo("garlic powder");
+    }
+
+    @Test
+    void unrelatedTextStaysUnmatched() {
+        // The vocabulary must have loaded for -1 to mean anything
+        assertThat(vocabulary.size()).isEqualTo(11);
+        assertThat(normalizer.idOf("qwertyuiop")).isEqualTo(-1);
+        assertThat(normalizer.idOf("milk chocolate cake")).isEqualTo(-1);
+        assertThat(normalizer.idOf("   ")).isEqualTo(-1);
+        assertThat(normalizer.idsOf(List.of("garlic", "zzzz"))).containsExactly(vocabulary.getNames().indexOf("garlic"), -1);
+    }
+
+    private String nameOf(String name) {
+        int id = normalizer.idOf(name);
+        return id >= 0 ? vocabulary.nameOf(id) : null;
+    }
+}
@@ -0,0 +1,71 @@
+package com.gfgm.ingredient;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gfgm.repository.IngredientRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IngredientSuggesterTest {
+
+    @TempDir
+    Path dir;
+
+    private IngredientSuggester suggester;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path vocabulary = dir.resolve("ingredients.json");
+        Files.writeString(vocabulary, "[\"garlic\", \"garlic powder\", \"green beans\", \"Ginger\", \"grapes\"]");
+        IngredientRepository ingredientRepository = mock(IngredientRepository.class);
+        // Names as recipes use them, with their counts; vocabulary names count once more
+        when(ingredientRepository.countUsesByName()).thenReturn(List.of(
+                new Object[]{"garlic powder", 7L},
+                new Object[]{"ginger", 3L},
+                new Object[]{"  Green   Beans ", 1L},
+                new Object[]{"gravy", 2L}));
+        suggester = new IngredientSuggester(new IngredientVocabulary(vocabulary.toString(), new ObjectMapper()),
+                ingredientRepository, new SimpleMeterRegistry());
+        suggester.rebuild();
+    }
+
+    @Test
+    void mostUsedNamesComeFirstThenAlphabetical() {
+        assertThat(suggester.suggest("g", 10))
+                .containsExactly("garlic powder", "ginger", "gravy", "green beans", "garlic", "grapes");
+        assertThat(suggester.suggest("gar", 10)).containsExactly("garlic powder", "garlic");
+    }
+
+    @Test
+    void prefixesAreComparedTrimmedLowerCasedAndWithSingleSpaces() {
+        assertThat(suggester.suggest("  GREEN  b", 10)).containsExactly("green beans");
+        assertThat(suggester.suggest(" Garlic ", 10)).containsExactly("garlic powder", "garlic");
+        assertThat(suggester.suggest("GARLIC P", 10)).containsExactly("garlic powder");
+    }
+
+    @Test
+    void emptyUnknownAndOverlongPrefixesSuggestNothing() {
+        assertThat(suggester.suggest("", 10)).isEmpty();
+        assertThat(suggester.suggest("   ", 10)).isEmpty();
+        assertThat(suggester.suggest(null, 10)).isEmpty();
+        assertThat(suggester.suggest("garlic powderx", 10)).isEmpty();
+        assertThat(suggester.suggest("g".repeat(10_000), 10)).isEmpty();
+    }
+
+    @Test
+    void limitIsHonouredAndCapped() {
+        assertThat(suggester.suggest("g", 2)).containsExactly("garlic powder", "ginger");
+        assertThat(suggester.suggest("g", 0)).isEmpty();
+        assertThat(suggester.suggest("g", -1)).isEmpty();
+        assertThat(suggester.suggest("g", 1000)).hasSize(6);
+    }
+}
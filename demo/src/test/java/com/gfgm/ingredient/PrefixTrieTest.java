@@ -0,0 +1,32 @@
+package com.gfgm.ingredient;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrefixTrieTest {
+
+    @Test
+    void precomputedAndScannedRangesRankTheSame() {
+        // 30 terms under "a" exceed topK, so that node answers from its precomputed list; "a1" ranges are scanned
+        String[] terms = IntStream.range(0, 30).mapToObj(i -> String.format("a%02d", i)).toArray(String[]::new);
+        int[] popularity = IntStream.range(0, 30).map(i -> i % 7).toArray();
+        PrefixTrie trie = PrefixTrie.build(terms, popularity, 5);
+
+        assertThat(trie.suggest("a", 5)).containsExactly("a06", "a13", "a20", "a27", "a05");
+        assertThat(trie.suggest("a", 3)).containsExactly("a06", "a13", "a20");
+        assertThat(trie.suggest("a1", 5)).containsExactly("a13", "a12", "a19", "a11", "a18");
+        assertThat(trie.suggest("a1", 50)).hasSize(5);
+        assertThat(trie.suggest("b", 5)).isEmpty();
+        assertThat(trie.suggest("a000", 5)).isEmpty();
+    }
+
+    @Test
+    void emptyTrieSuggestsNothing() {
+        PrefixTrie trie = PrefixTrie.build(new String[0], new int[0], 10);
+        assertThat(trie.suggest("a", 10)).isEmpty();
+        assertThat(trie.termCount()).isZero();
+    }
+}
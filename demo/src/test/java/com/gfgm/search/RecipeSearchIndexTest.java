@@ -0,0 +1,112 @@
+package com.gfgm.search;
+
+import com.gfgm.model.Ingredient;
+import com.gfgm.model.Recipe;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecipeSearchIndexTest {
+
+    private final RecipeSearchIndex index = new RecipeSearchIndex();
+
+    @BeforeEach
+    void setUp() {
+        index.index(recipe(1L, "Tomato soup", "Simple and warm", "stock"));
+        index.index(recipe(2L, "Green salad", "Topped with roasted tomatoes", "lettuce"));
+        index.index(recipe(3L, "Chickpea curry", null));
+        index.index(recipe(4L, "Chicken pie", null));
+    }
+
+    @Test
+    void titleMatchesRankAboveDescriptionMatches() {
+        assertThat(search("tomato")).containsExactly(1L, 2L);
+        assertThat(search("soup")).containsExactly(1L);
+        assertThat(search("lettuce salad")).containsExactly(2L);
+        assertThat(search("saffron")).isEmpty();
+        // stop words alone analyze to nothing
+        assertThat(search("the and")).isEmpty();
+    }
+
+    @Test
+    void pluralsAndVerbFormsMatchTheirStem() {
+        assertThat(search("tomatoes")).containsExactly(1L, 2L);
+        assertThat(search("Roast")).containsExactly(2L);
+        assertThat(TextAnalyzer.analyze("The Tomatoes, baked with Jalapeños!"))
+                .containsExactly("tomato", "bake", "jalapeno");
+        assertThat(TextAnalyzer.stem("baking")).isEqualTo("bake");
+        assertThat(TextAnalyzer.stem("chopped")).isEqualTo("chop");
+        assertThat(TextAnalyzer.stem("berries")).isEqualTo("berry");
+        assertThat(TextAnalyzer.stem("hummus")).isEqualTo("hummus");
+    }
+
+    @Test
+    void onlyAPartialLastWordExpandsToIndexedTerms() {
+        assertThat(search("chick")).containsExactly(4L, 3L);
+        assertThat(search("chick curry")).containsExactly(3L);
+        // a finished word and prefixes under three letters are matched as they are
+        assertThat(search("chick ")).isEmpty();
+        assertThat(search("ch")).isEmpty();
+        // an exact match outranks a prefix match
+        index.index(recipe(5L, "Chick stew", null));
+        assertThat(search("chick").get(0)).isEqualTo(5L);
+    }
+
+    @Test
+    void keysetPagesFollowTheRanking() {
+        RecipeSearchIndex.SearchResult first = index.searchAfter("tomato", null, null, 1);
+        assertThat(first.getRecipeIds()).containsExactly(1L);
+        assertThat(first.getTotalHits()).isEqualTo(2);
+
+        RecipeSearchIndex.SearchHit last = first.getHits().get(0);
+        assertThat(index.searchAfter("tomato", last.getScore(), last.getRecipeId(), 1).getRecipeIds())
+                .containsExactly(2L);
+        assertThat(index.search("tomato", 2, 10).getRecipeIds()).isEmpty();
+    }
+
+    @Test
+    void reindexingReplacesTermsAndUnpublishedOrRemovedRecipesDisappear() {
+        index.index(recipe(1L, "Lentil soup", "Simple and warm", "stock"));
+        assertThat(search("tomato")).containsExactly(2L);
+        assertThat(search("lentil")).containsExactly(1L);
+
+        Recipe draft = recipe(2L, "Green salad", "Topped with roasted tomatoes", "lettuce");
+        draft.setPublished(false);
+        index.index(draft);
+        index.index(recipe(6L, "Tomato tart", null));
+        index.remove(6L);
+        assertThat(search("tomato")).isEmpty();
+        assertThat(search("salad")).isEmpty();
+        assertThat(index.size()).isEqualTo(3);
+
+        Recipe unpublished = recipe(7L, "Tomato tart", null);
+        unpublished.setPublished(false);
+        index.index(unpublished);
+        assertThat(search("tart")).isEmpty();
+
+        index.clear();
+        assertThat(index.size()).isZero();
+        assertThat(search("soup")).isEmpty();
+    }
+
+    private List<Long> search(String query) {
+        return index.search(query, 0, 10).getRecipeIds();
+    }
+
+    private static Recipe recipe(Long id, String title, String description, String... ingredients) {
+        Recipe recipe = new Recipe();
+        recipe.setId(id);
+        recipe.setTitle(title);
+        recipe.setDescription(description);
+        for (String name : ingredients) {
+            Ingredient ingredient = new Ingredient();
+            ingredient.setName(name);
+            ingredient.setRecipe(recipe);
+            recipe.getIngredients().add(ingredient);
+        }
+        return recipe;
+    }
+}
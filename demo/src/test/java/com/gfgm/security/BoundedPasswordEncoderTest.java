@@ -0,0 +1,72 @@
+package com.gfgm.security;
+
+import com.gfgm.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedPasswordEncoderTest {
+
+    @Test
+    void hashesAndVerifiesOnThePool() {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(4, 1, 4, Duration.ofSeconds(5), new SimpleMeterRegistry());
+        try {
+            String hash = encoder.encode("secret");
+            assertThat(encoder.matches("secret", hash)).isTrue();
+            assertThat(encoder.matches("wrong", hash)).isFalse();
+        } finally {
+            encoder.shutdown();
+        }
+    }
+
+    @Test
+    void rehashesWhenTheConfiguredCostChanges() {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(5, 1, 4, Duration.ofSeconds(5), new SimpleMeterRegistry());
+        try {
+            assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret"))).isTrue();
+            assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("secret"))).isTrue();
+            assertThat(encoder.upgradeEncoding(encoder.encode("secret"))).isFalse();
+            assertThat(encoder.upgradeEncoding("not-a-bcrypt-hash")).isFalse();
+        } finally {
+            encoder.shutdown();
+        }
+    }
+
+    @Test
+    void rejectsWhenThePoolAndQueueAreFull() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        // One worker, one queue slot and a slow cost: of three concurrent hashes one must be turned away
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(13, 1, 1, Duration.ofSeconds(30), meterRegistry);
+        ExecutorService callers = Executors.newFixedThreadPool(3);
+        try {
+            List<CompletableFuture<String>> hashes = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                hashes.add(CompletableFuture.supplyAsync(() -> encoder.encode("secret"), callers));
+            }
+            long rejected = hashes.stream().filter(hash -> {
+                try {
+                    hash.join();
+                    return false;
+                } catch (CompletionException e) {
+                    return e.getCause() instanceof TooManyRequestsException;
+                }
+            }).count();
+
+            assertThat(rejected).isGreaterThanOrEqualTo(1);
+            assertThat(meterRegistry.get("auth.password.hash.rejected").counter().count()).isEqualTo(rejected);
+        } finally {
+            callers.shutdown();
+            encoder.shutdown();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.gfgm.security;
+
+import com.gfgm.model.Recipe;
+import com.gfgm.model.Role;
+import com.gfgm.model.User;
+import com.gfgm.repository.RecipeRepository;
+import com.gfgm.repository.UserRepository;
+import com.gfgm.service.AuthService;
+import com.gfgm.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import com.jayway.jsonpath.JsonPath;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class JwtAuthenticationFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        recipeRepository.deleteAll();
+        userRepository.deleteAll();
+
+        user = new User();
+        user.setUsername("cook");
+        user.setPassword(passwordEncoder.encode("secret"));
+        user.setEmail("cook@example.com");
+        user = userRepository.save(user);
+
+        for (int i = 0; i < 3; i++) {
+            Recipe recipe = new Recipe();
+            recipe.setTitle("Overnight oats " + i);
+            recipe.setUser(user);
+            recipeRepository.save(recipe);
+        }
+    }
+
+    @Test
+    void tokenClaimsIdentifyTheUserWithoutLoadingIt() throws Exception {
+        String token = authService.generateToken(user);
+
+        // page and ingredient batch (a short first page needs no count); no user lookups
+        assertThat(statementsFor(token)).isEqualTo(2);
+    }
+
+    @Test
+    void tokensWithoutUserClaimsStillAuthenticate() throws Exception {
+        String legacyToken = jwtService.generateToken(AuthenticatedUser.of(user));
+
+        // the user row, then page and ingredient batch
+        assertThat(statementsFor(legacyToken)).isEqualTo(3);
+    }
+
+    @Test
+    void credentialChangesRevokeEarlierTokens() throws Exception {
+        String token = authService.generateToken(user);
+        String legacyToken = jwtService.generateToken(AuthenticatedUser.of(user));
+
+        User promoted = userService.updateUserRole(user.getId(), Role.ADMIN);
+
+        mockMvc.perform(get("/recipes/my-recipes").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().is4xxClientError());
+        mockMvc.perform(get("/recipes/my-recipes").header(HttpHeaders.AUTHORIZATION, "Bearer " + legacyToken))
+                .andExpect(status().is4xxClientError());
+        // the version check itself costs no query
+        assertThat(statementsFor(authService.generateToken(promoted))).isEqualTo(2);
+    }
+
+    @Test
+    void passwordChangesAnswerWithATokenThatReplacesTheRevokedOne() throws Exception {
+        String token = authService.generateToken(user);
+
+        String body = mockMvc.perform(put("/users/profile/password")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"currentPassword\":\"secret\",\"newPassword\":\"n3w-secret\",\"confirmPassword\":\"n3w-secret\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value("cook"))
+                .andReturn().getResponse().getContentAsString();
+        String newToken = JsonPath.read(body, "$.token");
+
+        mockMvc.perform(get("/recipes/my-recipes").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().is4xxClientError());
+        assertThat(newToken).isNotEqualTo(token);
+        assertThat(statementsFor(newToken)).isEqualTo(2);
+    }
+
+    private long statementsFor(String token) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get("/recipes/my-recipes").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(3));
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,35 @@
+package com.gfgm.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void allowsABurstThenRefillsAtTheConfiguredRate() {
+        long now = 1_000 * SECOND;
+        // burst of 3, one token per second
+        TokenBucket bucket = new TokenBucket(3, 60, now);
+
+        assertThat(bucket.tryAcquire(now)).isZero();
+        assertThat(bucket.tryAcquire(now)).isZero();
+        assertThat(bucket.tryAcquire(now)).isZero();
+        assertThat(bucket.tryAcquire(now)).isEqualTo(SECOND);
+        assertThat(bucket.isIdle(now)).isFalse();
+
+        assertThat(bucket.tryAcquire(now + SECOND)).isZero();
+        assertThat(bucket.tryAcquire(now + SECOND)).isPositive();
+
+        // Unused time refills up to the burst size, never beyond it
+        long later = now + 60 * SECOND;
+        assertThat(bucket.isIdle(later)).isTrue();
+        for (int i = 0; i < 3; i++) {
+            assertThat(bucket.tryAcquire(later)).isZero();
+        }
+        assertThat(bucket.tryAcquire(later)).isPositive();
+    }
+}
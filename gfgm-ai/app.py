@@ -84,5 +84,46 @@ def predict():
     except Exception as e:
         return jsonify({"error": str(e)}), 500
 
+MAX_BATCH = 64
+
+# Batched prediction: {"requests": [{"ingredients": [...]}, ...]} answers
+# {"results": [{"status": 200, "body": {...}}, ...]} in the same order, running
+# the model once over all the vectors
+@app.route('/predict/batch', methods=['POST'])
+def predict_batch():
+    data = request.json or {}
+    items = data.get('requests', [])
+
+    if not isinstance(items, list) or not items:
+        return jsonify({"error": "No requests provided"}), 400
+    if len(items) > MAX_BATCH:
+        return jsonify({"error": f"At most {MAX_BATCH} requests per batch"}), 400
+
+    results = [None] * len(items)
+    valid = []
+    for i, item in enumerate(items):
+        ingredients = item.get('ingredients', []) if isinstance(item, dict) else []
+        if ingredients:
+            valid.append((i, ingredients))
+        else:
+            results[i] = {"status": 400, "body": {"error": "No ingredients provided"}}
+
+    if valid:
+        try:
+            input_vecs = mlb.transform([ingredients for _, ingredients in valid])
+            predictions = model.predict(input_vecs.toarray())
+            for (i, _), prediction in zip(valid, predictions):
+                predicted_label = int_to_meal[str(int(np.argmax(prediction)))]
+                recipe = next((r for r in recipes if r["name"].lower() == predicted_label.lower()), None)
+                if recipe:
+                    results[i] = {"status": 200, "body": recipe}
+                else:
+                    results[i] = {"status": 404, "body": {"error": "Recipe not found for prediction"}}
+        except Exception as e:
+            for i, _ in valid:
+                results[i] = {"status": 500, "body": {"error": str(e)}}
+
+    return jsonify({"results": results})
+
 if __name__ == '__main__':
     app.run(debug=True)